@@ -0,0 +1,118 @@
+package XXLChess;
+
+import XXLChess.Engine.AI;
+import XXLChess.Engine.BenchmarkLayouts;
+import XXLChess.Engine.MoveList;
+import XXLChess.Engine.Position;
+import XXLChess.Engine.TimeManager;
+import XXLChess.Engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BoardBenchmark class measures the queries the game runs through the Board on the benchmark layouts:
+ * the pseudo-legal moves of every piece of the side to move, the same moves filtered by safeMove,
+ * the legal moves of every piece, the check test, the evaluation of check, checkmate and stalemate that the game runs
+ * once per completed move, and a complete AI.getMove.
+ * Board#checkmate only reads the status cached by the Board, so the checkmate benchmark evaluates the status through
+ * the Board's Game instead, which is the work the game actually does.
+ * The Board is built without a window and its Position is loaded from the layout, as the AI sees it.
+ * No Piece objects are created, since a Piece loads its sprite through a running App, so only the queries that the
+ * Board answers from its Position are measured; the queries that return Pieces, such as getPiecesByColor, are not.
+ * The AI searches to a fixed depth with an emptied transposition table on every call, so that each call does the same work.
+ * @see Board
+ * @see XXLChess.Engine.Game#evaluateStatus()
+ * @see AI#getMove(Position, TimeManager)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    private static final int AI_DEPTH = 4;
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String layout;
+
+    private final MoveList moves = new MoveList();
+    private Board board;
+    private PieceColor side;
+    private TranspositionTable table;
+    private AI ai;
+
+    @Setup
+    public void setUp() throws IOException {
+        board = new Board(null);
+        board.getPosition().copyFrom(BenchmarkLayouts.load(layout));
+        side = board.getPosition().getSideToMove();
+        table = new TranspositionTable(16);
+        ai = new AI(side, table, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ai.shutdown();
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        moves.clear();
+        forEachPiece(false);
+        return moves.size();
+    }
+
+    @Benchmark
+    public int safeMove() {
+        moves.clear();
+        forEachPiece(false);
+        board.safeMove(moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public int safeMoves() {
+        moves.clear();
+        forEachPiece(true);
+        return moves.size();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return board.isInCheck(side);
+    }
+
+    @Benchmark
+    public boolean checkmate() {
+        return board.getGame().evaluateStatus().isCheckmate(side);
+    }
+
+    @Benchmark
+    public int aiGetMove() {
+        table.clear();
+        return ai.getMove(board.getPosition(), TimeManager.fixedDepth(AI_DEPTH));
+    }
+
+    private void forEachPiece(boolean legal) {
+        Position position = board.getPosition();
+        for (int square = 0; square < Position.SQUARES; square++) {
+            if (position.getColor(square) == side) {
+                int x = Position.fileOf(square);
+                int y = Position.rankOf(square);
+                if (legal) {
+                    board.getSafeMoves(x, y, moves);
+                } else {
+                    board.getLegalMoves(x, y, moves);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package XXLChess.Engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The BenchmarkLayouts class loads the fixed 14x14 layouts the JMH benchmarks run on, from the layouts resource folder:
+ * the opening position of level1.txt, a crowded middlegame and a sparse endgame, each with white to move.
+ * In the endgame the white King is in check, so the evasion and checkmate paths are measured as well.
+ */
+public final class BenchmarkLayouts {
+    private BenchmarkLayouts() {
+    }
+
+    /**
+     * Loads a layout.
+     * @param name The name of the layout: opening, middlegame or endgame.
+     * @return A new Position holding the layout.
+     * @throws IOException If the layout resource is missing or cannot be read.
+     */
+    public static Position load(String name) throws IOException {
+        InputStream stream = BenchmarkLayouts.class.getResourceAsStream("/layouts/" + name + ".txt");
+        if (stream == null) {
+            throw new IOException("Unknown layout: " + name);
+        }
+        return Position.fromLayout(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,95 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MoveGenerationBenchmark class measures the move generator on the benchmark layouts:
+ * the moves of every piece of one type, the legal moves of the side to move generated directly and by filtering
+ * pseudo-legal moves, the check test, the evasions behind the checkmate test, and a perft to depth 2.
+ * The move lists are allocated once per trial, so any allocation the GC profiler reports comes from the generator.
+ * @see MoveGenerator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String layout;
+
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList moves = new MoveList();
+    private final Perft perft = new Perft(0);
+    private Position position;
+    private PieceColor side;
+
+    /**
+     * The piece type whose moves are generated, so each type gets its own result.
+     */
+    @State(Scope.Thread)
+    public static class PieceTypeState {
+        @Param({"PAWN", "KNIGHT", "CAMEL", "BISHOP", "ROOK", "GENERAL", "ARCHBISHOP", "CHANCELLOR", "QUEEN", "AMAZON", "KING"})
+        public PieceType type;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        position = BenchmarkLayouts.load(layout);
+        side = position.getSideToMove();
+    }
+
+    @Benchmark
+    public int pieceMoves(PieceTypeState state) {
+        moves.clear();
+        Bitboard pieces = position.getPieces(state.type);
+        for (int square = pieces.nextSetBit(0); square >= 0; square = pieces.nextSetBit(square + 1)) {
+            if (position.getColor(square) == side) {
+                generator.generatePieceMoves(position, square, moves);
+            }
+        }
+        return moves.size();
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        moves.clear();
+        generator.generateLegal(position, side, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public int filteredPseudoLegalMoves() {
+        moves.clear();
+        generator.generate(position, side, moves);
+        generator.filterLegal(position, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return position.isInCheck(side);
+    }
+
+    @Benchmark
+    public int evasions() {
+        moves.clear();
+        generator.generateEvasions(position, side, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public long perftDepth2() {
+        return perft.count(position, 2, null);
+    }
+}
@@ -2,8 +2,13 @@ package XXLChess;
 
 import XXLChess.Piece.King;
 import XXLChess.Piece.Piece;
-import XXLChess.AI;
+import XXLChess.Engine.AI;
+import XXLChess.Engine.Move;
+import XXLChess.Engine.Position;
+import XXLChess.Engine.TimeManager;
+import XXLChess.Engine.TranspositionTable;
 import processing.core.PApplet;
+import processing.core.PImage;
 import processing.data.JSONObject;
 import processing.event.MouseEvent;
 
@@ -48,8 +53,17 @@ public class App extends PApplet {
     private int flashCount = 0;
     public boolean flashState = false;
     public boolean checkMateStatus=false;
-    private int aiActionCounter = 0;
     private boolean aiActionTriggered = false;
+    private TranspositionTable transpositionTable;
+    private AI ai;
+    private int searchThreads = 1;
+    private TimeManager aiLimits;
+    private boolean ponderEnabled;
+    private int shownWhiteTime;
+    private int shownBlackTime;
+    private boolean shownCheck;
+    private boolean shownWarning;
+    private String shownStatus;
 
     /**
      * Constructs an App object with the default configuration path.
@@ -74,17 +88,25 @@ public class App extends PApplet {
      * It sets the time controls for the players based on the configuration, including base time and time increment.
      * It initializes the remaining time for both white and black players.
      * It determines which player's turn it is based on the player's chosen color.
+     * It allocates the AI's transposition table with the size given by hash_mb in megabytes, keeping the existing table
+     * across restarts when the size has not changed, but emptying it since a restarted game starts from scratch.
+     * It reads the number of AI search threads from threads, defaulting to one.
+     * If ai_depth or ai_nodes is set, the AI searches every move to that depth or node count instead of playing
+     * on its clock, so that games can be reproduced.
+     * It reads whether the AI ponders on the player's turn from ponder, defaulting to off.
+     * Before the board is set up, it loads the piece sprites into the shared atlas; restarts reuse it.
      * @see #frameRate(float)
+     * @see SpriteCache#load(PApplet, int)
      * @see #loadJSONObject(File)
      * @see Board#setupBoard(String)
      * @see Board#setMovementParameters(double, double)
+     * @see TranspositionTable
      */
     public void setup() {
         frameRate(FPS);
 
-        // Load images during setup
-
-        // PImage spr = loadImage("src/main/resources/XXLChess/"+...);
+        // Load images during setup, once per process
+        SpriteCache.load(this, CELLSIZE);
 
         // load config
         JSONObject conf = loadJSONObject(new File(this.configPath));
@@ -107,6 +129,44 @@ public class App extends PApplet {
         this.blackTimeRemaining = baseTimeSeconds;
         whiteTurn = playerColour.equalsIgnoreCase("white");
         playerColour = conf.getString("player_colour");
+        int hashMegabytes = conf.getInt("hash_mb", TranspositionTable.DEFAULT_MEGABYTES);
+        if (transpositionTable == null || transpositionTable.getMegabytes() != hashMegabytes) {
+            transpositionTable = new TranspositionTable(hashMegabytes);
+        } else {
+            transpositionTable.clear();
+        }
+        searchThreads = Math.max(1, conf.getInt("threads", 1));
+        int aiDepth = conf.getInt("ai_depth", 0);
+        long aiNodes = conf.getLong("ai_nodes", 0);
+        ponderEnabled = conf.getBoolean("ponder", false);
+        aiLimits = aiDepth > 0 ? TimeManager.fixedDepth(aiDepth) : aiNodes > 0 ? TimeManager.fixedNodes(aiNodes) : null;
+        if (ai != null) {
+            ai.shutdown();
+            ai = null;
+        }
+        shownStatus = null;
+    }
+
+    /**
+     * Loads an image, handing out the shared sprite for the image of a piece once the sprite cache is loaded.
+     * Every Piece loads its image through this method when it is created, so the pieces of the layout, the pieces
+     * created again on a restart and the Queen created on a promotion share one small sprite per type and color
+     * instead of each decoding its own full-size copy of the PNG.
+     * Any other image is loaded by Processing as usual.
+     * @param filename The path of the image.
+     * @return The image.
+     * @see SpriteCache#getSprite(String)
+     */
+    @Override
+    public PImage loadImage(String filename) {
+        SpriteCache sprites = SpriteCache.get();
+        if (sprites != null) {
+            PImage sprite = sprites.getSprite(filename);
+            if (sprite != null) {
+                return sprite;
+            }
+        }
+        return super.loadImage(filename);
     }
 
     /**
@@ -119,7 +179,9 @@ public class App extends PApplet {
      * If AI mode is enabled, it resets the game by calling the setup() method, resumes the draw() loop,
      * resets the game over status, resets the remaining time for both players,
      * resets the frame count for white and black players, and sets the turn to start with the white player.
-     * If the 'e' or 'E' key is pressed (Escape key), it ends the game by setting the game over status to true.
+     * Restarting through setup shuts down the AI, which cancels a search that is still running.
+     * If the 'e' or 'E' key is pressed (Escape key), it ends the game by setting the game over status to true
+     * and cancels the AI's search, if it is thinking.
      * It determines the winner based on the current turn and displays the appropriate message on the screen.
      * @see #setup()
      * @see #loop()
@@ -156,6 +218,9 @@ public class App extends PApplet {
         }
         if (key == 'e' || key == 'E') { // Escape key
             gameOver = true; // End the game
+            if (ai != null) {
+                ai.cancel();
+            }
             String winner = whiteTurn ? "Black" : "White"; // The other player wins
             // Show message and stop the game
             fill(255, 0, 0); // Red color for message
@@ -178,7 +243,7 @@ public class App extends PApplet {
     /**
      * This method is an overridden implementation of the mouseClicked() method from the MouseListener interface.
      * It is responsible for handling mouse click events during the game.
-     * If the game is already over, the method returns immediately.
+     * If the game is already over, or the AI is thinking about its move, the method returns immediately.
      * If a tile on the board is clicked, the method performs the following actions:
      * Converts the mouse coordinates to board coordinates.
      * Retrieves the clicked tile on the board.
@@ -194,8 +259,7 @@ public class App extends PApplet {
      * @see Board#getTileAt(int, int)
      * @see Tile#drawHighlight(int, int, int)
      * @see Board#highlightLegalMoves(Piece, List)
-     * @see Piece#safeMove(List, int, int, Board)
-     * @see Piece#getLegalMoves(int, int, Board)
+     * @see Board#getSafeMoves(int, int)
      * @see Board#movePiece(int, int, int, int)
      * @see Tile#getPiece()
      * @see Piece#setMoved(boolean)
@@ -203,7 +267,7 @@ public class App extends PApplet {
      */
     @Override
     public void mouseClicked(MouseEvent e) {
-        if (gameOver) {
+        if (gameOver || (ai != null && ai.isThinking())) {
             return;
         }
         // Convert the mouse coordinates to board coordinates
@@ -221,7 +285,7 @@ public class App extends PApplet {
                 if (piece != null && piece.getColor() == (whiteTurn ? PieceColor.WHITE : PieceColor.BLACK)) {
                     if(!aiEnabled || (aiEnabled && ((whiteTurn && piece.getColor() == PieceColor.WHITE) || (!whiteTurn && piece.getColor() == PieceColor.BLACK)))) {
                         clickedTile.drawHighlight(105, 138, 76);
-                        board.highlightLegalMoves(piece, piece.safeMove(piece.getLegalMoves(x, y, board), piece.getX(), piece.getY(), board));
+                        board.highlightLegalMoves(piece, board.getSafeMoves(x, y));
                     }
                 }
                 else {
@@ -232,7 +296,7 @@ public class App extends PApplet {
             Piece selectedPiece = selectedTile.getPiece();
             if (selectedPiece != null) { // Check if the selectedPiece is not null
                 //List<int[]> legalMoves = selectedPiece.getLegalMoves(selectedTile.getX(), selectedTile.getY(), board);
-                List<int[]> legalMoves = selectedPiece.safeMove(selectedPiece.getLegalMoves(selectedTile.getX(), selectedTile.getY(), board), selectedPiece.getX(), selectedPiece.getY(), board);
+                List<int[]> legalMoves = board.getSafeMoves(selectedTile.getX(), selectedTile.getY());
                 if(clickedTile != null) {
                 int[] targetArray = new int[]{clickedTile.getX(), clickedTile.getY()};
                 boolean containsArray = legalMoves.stream()
@@ -271,41 +335,47 @@ public class App extends PApplet {
      * This method is an overridden implementation of the draw() method from the PApplet class.
      * It is responsible for rendering the game graphics and updating the game state on each frame.
      * Increments the frame count.
-     * Draws the game board and updates the movement of any moving piece on the board.
+     * Reads whether either King is in check from the board's status, which is only evaluated when a move is completed,
+     * and draws the game board with the King in check highlighted
+     * unless the highlight is flashing off, then updates the movement of any moving piece on the board.
      * Draws the moving piece on the board.
-     * Draws the sidebar on the right side of the board.
-     * Displays the remaining time for the white and black players in the sidebar.
+     * The board only redraws the tiles that have changed, and the sidebar is only redrawn when what it shows has changed:
+     * the displayed second of either clock, the check and warning messages or the status message.
+     * When it has, draws the sidebar on the right side of the board
+     * and displays the remaining time for the white and black players in the sidebar.
      * If the player's color is white and AI mode is enabled, triggers the execution of AI action.
      * If the player's color is black and AI mode is enabled, triggers the execution of AI action.
+     * If pondering is enabled and it is the player's turn, lets the AI ponder on the player's reply in the background,
+     * for no longer than the time left on the AI's clock.
      * Checks if the time for either player has run out and handles the game over scenario accordingly.
-     * Checks if the game is in a checkmate state and handles the game over scenario accordingly.
+     * Checks if the game is in a checkmate or stalemate state and handles the game over scenario accordingly.
+     * Cancels the AI's search once the game is over.
      * If the game is in a check state, displays a "Check!" message on the screen.
      * If an illegal move is attempted, displays a warning message and flashes the board.
      * Displays the status message in the center of the sidebar.
      * @see PApplet#draw()
-     * @see Board#draw()
+     * @see Board#draw(boolean)
+     * @see Board#getStatus()
      * @see Board#updateMovingPiece()
      * @see Board#drawMovingPiece()
+     * @see #sidebarChanged(int, int)
      * @see PApplet#fill(float, float, float)
      * @see PApplet#rect(float, float, float, float)
      * @see PApplet#textAlign(int, int)
      * @see PApplet#textSize(float)
      * @see PApplet#text(String, float, float)
-     * @see #executeAIActionAfterFrames()
+     * @see #executeAIAction()
+     * @see AI#ponder(Position, long)
      * @see #checkTimeUp(int, int)
      * @see #checkCheckmate()
      */
     @Override
     public void draw() {
         frame++;
-        board.draw();
+        checkState = board.getStatus().isAnyInCheck();
+        board.draw(flashState);
         board.updateMovingPiece();
         board.drawMovingPiece();
-        fill(180,180,180);
-        rect(WIDTH - SIDEBAR, 0,SIDEBAR,CELLSIZE * BOARD_WIDTH);
-        fill(255);  // 白色
-        textAlign(CENTER, CENTER);
-        textSize(20);
         int whiteLeftTime = whiteTimeRemaining - (whiteFrame/60);
         int blackLeftTime = blackTimeRemaining - (blackFrame/60) ;
         if(whiteTurn)
@@ -316,21 +386,37 @@ public class App extends PApplet {
             blackFrame++;
             blackLeftTime = blackTimeRemaining - (blackFrame/60);
         }
-        text(formatTime(whiteLeftTime), WIDTH - SIDEBAR / 2, 3*(HEIGHT / 4));
-        text(formatTime(blackLeftTime), WIDTH - SIDEBAR / 2, HEIGHT / 4);
+        boolean redrawSidebar = sidebarChanged(whiteLeftTime, blackLeftTime);
+        if (redrawSidebar) {
+            fill(180,180,180);
+            rect(WIDTH - SIDEBAR, 0,SIDEBAR,CELLSIZE * BOARD_WIDTH);
+            fill(255);  // 白色
+            textAlign(CENTER, CENTER);
+            textSize(20);
+            text(formatTime(whiteLeftTime), WIDTH - SIDEBAR / 2, 3*(HEIGHT / 4));
+            text(formatTime(blackLeftTime), WIDTH - SIDEBAR / 2, HEIGHT / 4);
+        }
 
         if(playerColour.equalsIgnoreCase("white")){
         if (aiEnabled && !whiteTurn && !aiActionTriggered) {
-            executeAIActionAfterFrames();
+            executeAIAction();
         }
         }else{
             if (aiEnabled && whiteTurn && !aiActionTriggered) {
-                executeAIActionAfterFrames();
+                executeAIAction();
             }
         }
+        if (aiEnabled && ponderEnabled && ai != null && !gameOver && !board.isAnimating()
+                && whiteTurn == playerColour.equalsIgnoreCase("white")) {
+            int aiLeftTime = ai.getColor() == PieceColor.WHITE ? whiteLeftTime : blackLeftTime;
+            ai.ponder(board.getPosition(), aiLeftTime * 1000L);
+        }
         checkTimeUp(whiteLeftTime, blackLeftTime);
         checkCheckmate();
-        if(!checkMateStatus){
+        if (gameOver && ai != null) {
+            ai.cancel();
+        }
+        if(!checkMateStatus && redrawSidebar){
         if (checkState) {
             fill(255, 0, 0); // Red color for message
             textSize(20); // Smaller font size
@@ -338,11 +424,13 @@ public class App extends PApplet {
         }
         }
         if (illegalMoveAttempted) {
-            fill(255, 0, 0); // Red color for message
-            textSize(14); // Smaller font size
-            text("You must", WIDTH - SIDEBAR / 2, HEIGHT / 2 - 15);
-            textSize(14); // Smaller font size
-            text("defend your king!", WIDTH - SIDEBAR / 2, HEIGHT / 2);
+            if (redrawSidebar) {
+                fill(255, 0, 0); // Red color for message
+                textSize(14); // Smaller font size
+                text("You must", WIDTH - SIDEBAR / 2, HEIGHT / 2 - 15);
+                textSize(14); // Smaller font size
+                text("defend your king!", WIDTH - SIDEBAR / 2, HEIGHT / 2);
+            }
             flashCount++;
             if (flashCount > 180) { // Flash for 3 seconds (assuming 60 frames per second)
                 illegalMoveAttempted = false;
@@ -352,55 +440,103 @@ public class App extends PApplet {
         } else {
             flashState = true; // Always show the highlight when not flashing
         }
-        fill(255);  // 白色
-        textAlign(CENTER, CENTER);
-        textSize(14);  // Smaller font size
-        text(statusMessage, WIDTH - SIDEBAR / 2, HEIGHT / 2 - 15);
+        if (redrawSidebar) {
+            fill(255);  // 白色
+            textAlign(CENTER, CENTER);
+            textSize(14);  // Smaller font size
+            text(statusMessage, WIDTH - SIDEBAR / 2, HEIGHT / 2 - 15);
+        }
 
     }
 
     /**
-     * This private method is responsible for executing the AI's action after a certain number of frames.
-     * It increments a counter to track the number of frames elapsed.
-     * Once the counter reaches a specified threshold (120 frames), it performs the following actions:
-     * Instantiates an AI object with the appropriate color based on the player's color.
-     * Invokes the AI's getMove() method to calculate the best move.
-     * Extracts the start and end coordinates of the best move.
+     * Checks whether the sidebar shows something different from what it showed when it was last drawn,
+     * and remembers what it shows now.
+     * The clocks are compared by the second they display, so the clock text is only formatted and drawn again
+     * once a second instead of on every frame.
+     * @param whiteLeftTime The remaining time of the white player, in seconds.
+     * @param blackLeftTime The remaining time of the black player, in seconds.
+     * @return true if the sidebar has to be redrawn; always true on the first frame after setup.
+     */
+    private boolean sidebarChanged(int whiteLeftTime, int blackLeftTime) {
+        boolean showCheck = checkState && !checkMateStatus;
+        if (statusMessage.equals(shownStatus) && whiteLeftTime == shownWhiteTime && blackLeftTime == shownBlackTime
+                && showCheck == shownCheck && illegalMoveAttempted == shownWarning) {
+            return false;
+        }
+        shownWhiteTime = whiteLeftTime;
+        shownBlackTime = blackLeftTime;
+        shownCheck = showCheck;
+        shownWarning = illegalMoveAttempted;
+        shownStatus = statusMessage;
+        return true;
+    }
+
+    /**
+     * This private method is responsible for executing the AI's action without holding up the draw loop.
+     * The AI thinks on its own worker thread, so this method only starts the search and later picks up the move,
+     * and the board, the animation and the clocks keep being drawn at full frame rate in the meantime.
+     * It performs the following actions:
+     * Waits until the board has finished animating the last move.
+     * Instantiates an AI object with the appropriate color based on the player's color, unless one already plays that color.
+     * The AI shares the transposition table allocated in setup, so its cached results carry over from move to move,
+     * and prints the report of every search to the console.
+     * If the AI is not thinking yet, works out the time left on the AI's clock and starts the search with startThinking(),
+     * which plans the time of the move from the remaining time and the increment, unless fixed limits were configured.
+     * Otherwise polls for the move, which does not block, and returns if the AI is still thinking.
+     * If the AI has no legal move, nothing is played and the checkmate check ends the game.
      * Executes the best move on the game board by calling the movePiece() method.
+     * Adds the increment to the AI's clock, as for the player.
      * Switches the turns between white and black players.
-     * Resets the counter back to 0 for the next AI action.
      * @see AI
-     * @see AI#getMove(Board)
+     * @see AI#startThinking(Position, long, long)
+     * @see AI#pollMove()
+     * @see Board#isAnimating()
      * @see Board#movePiece(int, int, int, int)
-     * @return None
      */
-    private void executeAIActionAfterFrames() {
-        // Increment counter
-        aiActionCounter++;
-
-        // After 120 frames, execute AI action
-        if(aiActionCounter >= 120) {
-            // Instantiate AI if necessary
-            PieceColor aiColor = playerColour.equalsIgnoreCase("white") ? PieceColor.BLACK : PieceColor.WHITE;
-            AI ai = new AI(aiColor);
-
-            // Calculate best move
-            int[] bestMove = ai.getMove(board);
-            int startX = bestMove[0];
-            int startY = bestMove[1];
-            int endX = bestMove[2];
-            int endY = bestMove[3];
-
-            // Execute best move
-            board.movePiece(startX, startY, endX, endY);
-
-            // Switch turns
-            whiteTurn = !whiteTurn;
-
-            // Reset counter
-            aiActionCounter = 0;
+    private void executeAIAction() {
+        if (board.isAnimating()) {
+            return;
+        }
+        // Instantiate AI if necessary
+        PieceColor aiColor = playerColour.equalsIgnoreCase("white") ? PieceColor.BLACK : PieceColor.WHITE;
+        if (ai == null || ai.getColor() != aiColor) {
+            if (ai != null) {
+                ai.shutdown();
+            }
+            ai = new AI(aiColor, transpositionTable, searchThreads);
+            ai.setVerbose(true);
+        }
+        ai.setFixedLimits(aiLimits);
+        boolean aiWhite = aiColor == PieceColor.WHITE;
+
+        // Start thinking on the AI's clock
+        if (!ai.isThinking()) {
+            long remainingFrames = (long) (aiWhite ? whiteTimeRemaining : blackTimeRemaining) * FPS - (aiWhite ? whiteFrame : blackFrame);
+            ai.startThinking(board.getPosition(), remainingFrames * 1000 / FPS, incrementSeconds * 1000L);
+            return;
         }
 
+        // Pick up the best move once it is ready
+        int bestMove = ai.pollMove();
+        if (bestMove == AI.PENDING || bestMove == Move.NONE) {
+            return;
+        }
+        int startX = Position.fileOf(Move.from(bestMove));
+        int startY = Position.rankOf(Move.from(bestMove));
+        int endX = Position.fileOf(Move.to(bestMove));
+        int endY = Position.rankOf(Move.to(bestMove));
+
+        // Execute best move
+        board.movePiece(startX, startY, endX, endY);
+        if (aiWhite) {
+            whiteTimeRemaining += incrementSeconds;
+        } else {
+            blackTimeRemaining += incrementSeconds;
+        }
+
+        // Switch turns
+        whiteTurn = !whiteTurn;
     }
 
     /**
@@ -448,12 +584,22 @@ public class App extends PApplet {
      * declares black as the winner, stops the draw() loop, and sets the game over status to true.
      * If the black player's time has reached or fallen below 0, it displays a "You won on time" message on the screen,
      * declares white as the winner, stops the draw() loop, and sets the game over status to true.
+     * Checkmate and stalemate are read from the board's status, evaluated once when the last move was completed,
+     * so this check costs next to nothing on the frames in between.
+     * While a move is being animated the status still describes the position before it, so nothing is checked
+     * until the piece has landed and the status of the new position has been evaluated.
+     * If the player to move is stalemated, it displays a "Stalemate" message, declares a draw and stops the draw() loop.
      * @see PApplet#fill(float, float, float)
      * @see PApplet#textSize(float)
      * @see PApplet#text(String, float, float)
      * @see PApplet#noLoop()
+     * @see Board#getStatus()
+     * @see Board#isAnimating()
      */
     public void checkCheckmate() {
+        if (board.isAnimating()) {
+            return;
+        }
         PieceColor currentTurn = whiteTurn ? PieceColor.WHITE : PieceColor.BLACK;
         //PieceColor opponentColor = whiteTurn ? PieceColor.BLACK : PieceColor.WHITE;
         checkMateStatus=board.checkmate(board, currentTurn);
@@ -473,6 +619,14 @@ public class App extends PApplet {
                 noLoop(); // Stop draw() from looping
                 gameOver = true;
             }
+        } else if (board.getStatus().isStalemate() && board.getStatus().getSideToMove() == currentTurn) {
+            fill(255, 0, 0); // Red color for message
+            textSize(14); // Smaller font size
+            text("Stalemate", WIDTH - SIDEBAR / 2, HEIGHT / 2 - 15);
+            textSize(20); // Regular font size
+            text("Draw.", WIDTH - SIDEBAR / 2, HEIGHT / 2 + 15);
+            noLoop(); // Stop draw() from looping
+            gameOver = true;
         }
     }
 
@@ -1,22 +1,36 @@
 package XXLChess;
 
+import XXLChess.Engine.Bitboard;
+import XXLChess.Engine.Game;
+import XXLChess.Engine.GameStatus;
+import XXLChess.Engine.Move;
+import XXLChess.Engine.MoveGenerator;
+import XXLChess.Engine.MoveList;
+import XXLChess.Engine.Position;
+import XXLChess.Engine.StaticExchange;
 import XXLChess.Piece.King;
 import XXLChess.Piece.Pawn;
 import XXLChess.Piece.Piece;
 import XXLChess.Piece.Queen;
+import processing.core.PGraphics;
 
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import static XXLChess.App.*;
 
 /**
  * The Board class represents the chessboard in the XXLChess game.
  * It maintains the state of the chessboard and provides methods for manipulating the tiles and pieces on the board.
+ * The logical position is kept in a bitboard Position, which answers occupancy and emptiness queries;
+ * the Tile grid is only a rendering view that lags behind the Position while a piece is being animated.
  */
 public class Board {
     private final int tileSize = CELLSIZE;
@@ -30,6 +44,13 @@ public class Board {
     private List<Tile> highlightedTiles = new ArrayList<>();
 
     private Tile[][] tiles;
+    private final Game game = new Game();
+    private final Position position = game.getPosition();
+    private final Piece[] pieces = new Piece[Position.SQUARES];
+    private final Set<Piece> movedPieces = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveList exchangeMoves = new MoveList();
+    private final StaticExchange staticExchange = new StaticExchange();
     private App app;
     private Piece movingPiece;
     private int[] startPosition;
@@ -41,6 +62,9 @@ public class Board {
     private int[] rookStartPosition = null;
     private int[] rookTargetPosition = null;
     private double rookProgress = 0;
+    private PGraphics staticLayer;
+    private boolean fullRedraw = true;
+    private GameStatus status;
     //public boolean checkState = true;
     /**
      * Constructs a new Board object with the specified App instance.
@@ -83,6 +107,7 @@ public class Board {
             for (int y = 0; y < boardSize; y++) {
                 boolean isBlack = (x + y) % 2 == 1;
                 tiles[x][y] = new Tile(app, x * tileSize, y * tileSize, tileSize, isBlack);
+                tiles[x][y].setBoard(this);
             }
         }
     }
@@ -98,35 +123,42 @@ public class Board {
     }
 
     /**
-     * Draws the game board and its components on the screen.
-     * This method is responsible for rendering the tiles, pieces, and highlighting specific elements on the board.
-     * It iterates over each tile on the board and performs the following actions:
-     * Calls the draw() method of each tile to render it on the screen.
-     * Retrieves the piece on the current tile.
-     * If the flashState is true and the piece is an instance of King and is in check,
-     * it draws a red highlight on the tile to indicate the king is in check.
+     * Draws the game board and its components on the screen, redrawing only the tiles that have changed.
+     * The checkerboard itself never changes, so it is drawn once into an offscreen layer when the board is first drawn.
+     * Processing keeps the pixels of the window from one frame to the next, since the sketch never clears them
+     * with background(), so a tile that has not changed does not have to be drawn again.
+     * This method performs the following actions:
+     * Whether each King is in check is read from the status evaluated when the last move was completed.
+     * If the flashState is true and the King is in check,
+     * it draws a red highlight on the tile of the King to indicate the king is in check.
      * If the lastMovedFrom and lastMovedTo coordinates are not null,
      * it draws a highlight on the tiles indicating the last moved piece's source and destination.
-     * @see Tile#draw()
+     * On the first frame, the whole layer is drawn in one call and only the highlighted and occupied tiles on top of it.
+     * After that, only the dirty tiles are drawn: those whose piece or highlight has changed,
+     * and those the moving piece was drawn over on the last frame. Each restores its background from the layer.
+     * @see Tile#draw(processing.core.PImage, boolean)
+     * @see Tile#isDirty()
+     * @see #drawMovingPiece()
      * @see Tile#getPiece()
      * @see Piece
      * @see King
+     * @see #getStatus()
      * @see Tile#drawHighlight(int, int, int)
-     * @see App#flashState
-     * @see App#checkState
+     * @param flashState Whether a King in check is highlighted on this frame, false while the highlight flashes off.
      * @see #lastMovedFrom
      * @see #lastMovedTo
      */
-    public void draw() {
-        app.checkState = false; // Reset checkState at the start of each frame
-        for (int x = 0; x < boardSize; x++) {
-            for (int y = 0; y < boardSize; y++) {
-                tiles[x][y].draw();
-                Piece piece = tiles[x][y].getPiece();
-                if (app.flashState && piece instanceof King && ((King) piece).isInCheck(this)) {
-             // Draw highlight in red if the king is in check
-                    tiles[x][y].drawHighlight(255, 0, 0);
-                    app.checkState = true; // Set checkState to true if a king is in check
+    public void draw(boolean flashState) {
+        if (flashState) {
+            GameStatus status = getStatus();
+            for (PieceColor color : PieceColor.values()) {
+                int kingSquare = position.getKingSquare(color);
+                if (kingSquare >= 0 && status.isInCheck(color)) {
+                    Tile kingTile = tiles[Position.fileOf(kingSquare)][Position.rankOf(kingSquare)];
+                    if (kingTile.getPiece() instanceof King) {
+                        // Draw highlight in red if the king is in check
+                        kingTile.drawHighlight(255, 0, 0);
+                    }
                 }
             }
         }
@@ -134,6 +166,45 @@ public class Board {
             tiles[lastMovedFrom[0]][lastMovedFrom[1]].drawHighlight(238, 229, 109);
             tiles[lastMovedTo[0]][lastMovedTo[1]].drawHighlight(238, 229, 109);
         }
+        if (staticLayer == null) {
+            staticLayer = app.createGraphics(boardSize * tileSize, boardSize * tileSize);
+            staticLayer.beginDraw();
+            staticLayer.noStroke();
+            for (Tile[] column : tiles) {
+                for (Tile tile : column) {
+                    tile.drawBackground(staticLayer);
+                }
+            }
+            staticLayer.endDraw();
+        }
+        if (fullRedraw) {
+            app.image(staticLayer, 0, 0);
+        }
+        for (int x = 0; x < boardSize; x++) {
+            for (int y = 0; y < boardSize; y++) {
+                Tile tile = tiles[x][y];
+                if (fullRedraw || tile.isDirty()) {
+                    tile.draw(staticLayer, !fullRedraw);
+                }
+            }
+        }
+        fullRedraw = false;
+    }
+
+    /**
+     * Marks every tile that a piece-sized square at a pixel position overlaps as dirty,
+     * so that what is drawn there now is wiped on the next frame.
+     * @param pixelX The x-coordinate of the top left corner, in pixels.
+     * @param pixelY The y-coordinate of the top left corner, in pixels.
+     */
+    private void markDirty(int pixelX, int pixelY) {
+        int lastX = Math.min(boardSize - 1, (pixelX + tileSize - 1) / tileSize);
+        int lastY = Math.min(boardSize - 1, (pixelY + tileSize - 1) / tileSize);
+        for (int x = Math.max(0, pixelX / tileSize); x <= lastX; x++) {
+            for (int y = Math.max(0, pixelY / tileSize); y <= lastY; y++) {
+                tiles[x][y].markDirty();
+            }
+        }
     }
 
     /**
@@ -152,19 +223,132 @@ public class Board {
         return null;
     }
 
+    /**
+     * Retrieves the headless game behind this board, which holds the position and the rules.
+     * The board only adds the tiles, the Piece sprites and the animation of moves on top of it.
+     * @return The Game of this board.
+     * @see Game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Retrieves the bitboard position behind this board.
+     * The position always reflects the logical game state, including moves whose animation has not finished yet.
+     * @return The Position of this board.
+     * @see Position
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Retrieves the piece that logically stands on the specified square.
+     * Unlike {@link #getTileAt(int, int)}, this does not lag behind while a move is being animated.
+     * @param x The x-coordinate of the square.
+     * @param y The y-coordinate of the square.
+     * @return The piece on the square, or null if the square is empty or off the board.
+     */
+    public Piece getPieceAt(int x, int y) {
+        if (!Position.isOnBoard(x, y)) {
+            return null;
+        }
+        return pieces[Position.square(x, y)];
+    }
+
     /**
      * Checks if the specified tile on the game board is empty.
      * This method determines whether a tile at the given coordinates does not contain a piece.
      * @param x The x-coordinate of the tile.
      * @param y The y-coordinate of the tile.
      * @return true if the tile is empty (contains no piece), false otherwise.
-     * @see Tile
-     * @see Tile#getPiece()
-     * @see #getTileAt(int, int)
+     * @see Position#isEmpty(int)
      */
     public boolean isTileEmpty(int x, int y) {
-        Tile tile = getTileAt(x, y);
-        return tile != null && tile.getPiece() == null;
+        return Position.isOnBoard(x, y) && position.isEmpty(Position.square(x, y));
+    }
+
+    /**
+     * Checks whether a square is attacked by any piece of the given color.
+     * The check looks outward from the square through the leaper tables and slider rays and stops at the first attacker,
+     * instead of generating the attacking side's moves.
+     * @param square The square index, as given by Position#square(int, int).
+     * @param byColor The color of the attacking pieces.
+     * @return true if the square is attacked, false otherwise.
+     * @see Position#isSquareAttacked(int, PieceColor)
+     */
+    public boolean isSquareAttacked(int square, PieceColor byColor) {
+        return position.isSquareAttacked(square, byColor);
+    }
+
+    /**
+     * Checks whether the King of the given color is in check.
+     * @param color The color of the King.
+     * @return true if the King is attacked, false if it is safe or not on the board.
+     * @see #isSquareAttacked(int, PieceColor)
+     */
+    public boolean isInCheck(PieceColor color) {
+        return position.isInCheck(color);
+    }
+
+    /**
+     * Retrieves whether the position on the board is in check, checkmate or stalemate.
+     * The status is evaluated once per completed move, when the moving piece lands, and kept until the board changes
+     * again, so the renderer and the game-over checks can read it on every frame for free.
+     * Changes made without animation, through setupBoard, movePieceNow or Tile#setPiece, only drop the cached status;
+     * it is evaluated again the next time it is read.
+     * @return The status of the position on the board.
+     * @see Game#evaluateStatus()
+     * @see #updateMovingPiece()
+     */
+    public GameStatus getStatus() {
+        if (status == null) {
+            status = game.evaluateStatus();
+        }
+        return status;
+    }
+
+    /**
+     * Records that a piece now logically stands on a square, or that the square is now empty.
+     * The Tile view is not touched; Tile#setPiece calls this so that code writing to tiles directly stays in sync.
+     * Unless a move is being animated, the cached status is dropped, since the position has changed.
+     * @param x The x-coordinate of the square.
+     * @param y The y-coordinate of the square.
+     * @param piece The piece on the square, or null to empty it.
+     * @see Tile#setPiece(Piece)
+     */
+    void syncSquare(int x, int y, Piece piece) {
+        int square = Position.square(x, y);
+        pieces[square] = piece;
+        if (piece == null) {
+            position.remove(square);
+        } else {
+            position.put(square, piece.getType(), piece.getColor(), movedPieces.contains(piece));
+        }
+        if (!isAnimating()) {
+            status = null;
+        }
+    }
+
+    /**
+     * Places a piece on a square both logically and in the Tile view.
+     * @param x The x-coordinate of the square.
+     * @param y The y-coordinate of the square.
+     * @param piece The piece to place, or null to empty the square.
+     */
+    private void placePiece(int x, int y, Piece piece) {
+        tiles[x][y].showPiece(piece);
+        syncSquare(x, y, piece);
+    }
+
+    /**
+     * Marks a piece as moved, both on the piece itself and in the position used for castling and pawn double steps.
+     * @param piece The piece that has moved.
+     */
+    private void markMoved(Piece piece) {
+        piece.setMoved(true);
+        movedPieces.add(piece);
     }
 
     /**
@@ -172,12 +356,14 @@ public class Board {
      * This method facilitates the movement of a chess piece by updating its position and managing related actions.
      * It takes the starting coordinates (fromX, fromY) and the target coordinates (toX, toY) as parameters.
      * The method performs the following actions:
-     * Retrieves the piece on the starting tile and assigns it to the movingPiece variable.
+     * Retrieves the piece on the starting square and assigns it to the movingPiece variable.
      * If a valid piece is found:
-     * Removes the piece from the starting tile by setting it to null.
+     * Moves the piece in the Position at once, capturing any piece on the target square,
+     * and removes the piece from the starting tile so that it can be animated.
      * Updates the piece's position to the target coordinates.
      * Tracks the last moved from and to coordinates for highlighting purposes.
-     * Sets the moved flag of the piece to true.
+     * Sets the moved flag of the piece to true and passes the turn in the Position to the other color.
+     * The Position's Zobrist key follows each of these changes incrementally.
      * If the movingPiece is an instance of King and the move involves castling:
      * Determines the positions of the rook before and after the castling move based on the target coordinates.
      * Retrieves the rook piece and sets its moved flag to true.
@@ -210,14 +396,17 @@ public class Board {
      * @see #maxMovementTime
      */
     public void movePiece(int fromX, int fromY, int toX, int toY) {
-        movingPiece = tiles[fromX][fromY].getPiece();
+        movingPiece = getPieceAt(fromX, fromY);
         if (movingPiece != null) {
-            tiles[fromX][fromY].setPiece(null);
+            tiles[fromX][fromY].showPiece(null);
+            syncSquare(fromX, fromY, null);
+            markMoved(movingPiece);
+            syncSquare(toX, toY, movingPiece);
             movingPiece.setX(toX);
             movingPiece.setY(toY);
+            position.setSideToMove(Position.opposite(movingPiece.getColor()));
             lastMovedFrom = new int[]{fromX, fromY};
             lastMovedTo = new int[]{toX, toY};
-            movingPiece.setMoved(true);
         }
         if (movingPiece instanceof King && Math.abs(toX - fromX) == 4) {
             int rookOldX, rookNewX;
@@ -230,12 +419,14 @@ public class Board {
                 rookOldX = 0;
                 rookNewX = 4;
             }
-            movingRook = getTileAt(rookOldX, toY).getPiece();
-            movingRook.setMoved(true);
+            movingRook = getPieceAt(rookOldX, toY);
+            markMoved(movingRook);
             rookStartPosition = new int[]{rookOldX * tileSize, toY * tileSize};
             rookTargetPosition = new int[]{rookNewX * tileSize, toY * tileSize};
             rookProgress = 0;
-            tiles[rookOldX][toY].setPiece(null);
+            tiles[rookOldX][toY].showPiece(null);
+            syncSquare(rookOldX, toY, null);
+            syncSquare(rookNewX, toY, movingRook);
             movingRook.setX(rookNewX);
             movingRook.setY(toY);
         }
@@ -248,8 +439,8 @@ public class Board {
         progress = 0;
         double distance = Math.sqrt(Math.pow(toXPixel - fromXPixel, 2) + Math.pow(toYPixel - fromYPixel, 2));
         double speed = pieceMovementSpeed;
-        if (distance / speed > maxMovementTime * app.frameRate) {
-            speed = distance / (maxMovementTime * app.frameRate);
+        if (distance / speed > maxMovementTime * FPS) {
+            speed = distance / (maxMovementTime * FPS);
         }
         pieceMovementSpeed = speed;
 
@@ -260,9 +451,9 @@ public class Board {
      * This method facilitates the instantaneous movement of a chess piece by updating its position on the board.
      * It takes the starting coordinates (fromX, fromY) and the target coordinates (toX, toY) as parameters.
      * The method performs the following actions:
-     * Retrieves the piece on the starting tile and assigns it to the newpiece variable.
+     * Retrieves the piece on the starting square and assigns it to the newpiece variable.
      * If a valid piece is found:
-     * Sets the newpiece on the target tile.
+     * Sets the newpiece on the target tile and in the Position, keeping its moved flag unchanged.
      * Removes the piece from the starting tile by setting it to null.
      * Updates the piece's position to the target coordinates.
      * Note: This method does not handle any animations, legality checks, or additional actions related to the movement.
@@ -277,10 +468,10 @@ public class Board {
      * @see Piece#setY(int)
      */
     public void movePieceNow(int fromX,int fromY,int toX,int toY){
-        Piece newpiece = tiles[fromX][fromY].getPiece();
+        Piece newpiece = getPieceAt(fromX, fromY);
         if(newpiece != null) {
-            tiles[toX][toY].setPiece(newpiece);
-            tiles[fromX][fromY].setPiece(null);
+            placePiece(toX, toY, newpiece);
+            placePiece(fromX, fromY, null);
             newpiece.setX(toX);
             newpiece.setY(toY);
         }
@@ -299,6 +490,7 @@ public class Board {
      * Removes the moving piece from the start tile.
      * If the moving piece is a Pawn and it has crossed the middle row of the board, upgrades it to a Queen.
      * Resets the moving piece-related variables.
+     * Evaluates the status of the position once, now that the move is complete.
      * If a rook is currently in the process of moving:
      * Updates the progress of the rook movement by incrementing it with the piece movement speed.
      * Calculates the distance between the starting and target positions of the rook.
@@ -318,14 +510,15 @@ public class Board {
      * @see #rookTargetPosition
      * @see #rookProgress
      * @see #upgradePawnToQueen(App, int, int, PieceColor)
+     * @see #getStatus()
      */
     public void updateMovingPiece() {
         if (movingPiece != null) {
             progress += pieceMovementSpeed;
             double distance = Math.sqrt(Math.pow(targetPosition[0] - startPosition[0], 2) + Math.pow(targetPosition[1] - startPosition[1], 2));
             if (progress >= distance) {
-                tiles[targetPosition[0]/tileSize][targetPosition[1]/tileSize].setPiece(movingPiece);
-                tiles[startPosition[0]/tileSize][startPosition[1]/tileSize].setPiece(null);
+                tiles[targetPosition[0]/tileSize][targetPosition[1]/tileSize].showPiece(movingPiece);
+                tiles[startPosition[0]/tileSize][startPosition[1]/tileSize].showPiece(null);
                 if (movingPiece instanceof Pawn) {
                     // Calculate the middle row of the board
                     int middleRow = boardSize / 2;
@@ -340,6 +533,7 @@ public class Board {
                     startPosition = null;
                     targetPosition = null;
                     progress = 0;
+                    status = game.evaluateStatus();
             }
         }
         // Rook movement logic moved here
@@ -347,7 +541,7 @@ public class Board {
             rookProgress += pieceMovementSpeed;
             double rookDistance = Math.sqrt(Math.pow(rookTargetPosition[0] - rookStartPosition[0], 2) + Math.pow(rookTargetPosition[1] - rookStartPosition[1], 2));
             if (rookProgress >= rookDistance) {
-                tiles[rookTargetPosition[0]/tileSize][rookTargetPosition[1]/tileSize].setPiece(movingRook);
+                tiles[rookTargetPosition[0]/tileSize][rookTargetPosition[1]/tileSize].showPiece(movingRook);
                 movingRook = null;
                 rookStartPosition = null;
                 rookTargetPosition = null;
@@ -383,7 +577,8 @@ public class Board {
      * Calculates the ratio of the progress for a moving rook piece and updates its position accordingly.
      * This method is used in the drawMovingPiece() method to calculate the intermediate position of the moving rook during animation.
      * It uses the ratio to determine the x and y coordinates of the rook's current position based on its progress and the target and start positions.
-     * Finally, it calls the draw() method of the moving rook to render it at the calculated position on the game board.
+     * Finally, it calls the draw() method of the moving rook to render it at the calculated position on the game board,
+     * and marks the tiles under it dirty so that they are redrawn, without the piece, on the next frame.
      * @param rookProgress The progress of the rook movement.
      * @param rookTargetPosition The target position of the rook movement.
      * @param rookStartPosition The start position of the rook movement.
@@ -396,7 +591,182 @@ public class Board {
         double ratio = rookProgress / Math.sqrt(Math.pow(rookTargetPosition[0] - rookStartPosition[0], 2) + Math.pow(rookTargetPosition[1] - rookStartPosition[1], 2));
         int x = (int) (rookStartPosition[0] + (rookTargetPosition[0] - rookStartPosition[0]) * ratio);
         int y = (int) (rookStartPosition[1] + (rookTargetPosition[1] - rookStartPosition[1]) * ratio);
-        movingRook.draw(x, y, tileSize);
+        SpriteCache sprites = SpriteCache.get();
+        if (sprites != null) {
+            sprites.draw(app, movingRook.getType(), movingRook.getColor(), x, y, tileSize);
+        } else {
+            movingRook.draw(x, y, tileSize);
+        }
+        markDirty(x, y);
+    }
+
+    /**
+     * Converts a set of attacked squares into the move format returned by Piece#getLegalMoves.
+     * Squares occupied by pieces of the given color are masked out with one bitboard operation,
+     * so the result contains the empty squares and the opponent pieces in the set.
+     * @param attacks The squares the piece attacks on the current board.
+     * @param color The color of the moving piece.
+     * @return A list of moves as int arrays [x, y].
+     * @see XXLChess.Engine.Attacks
+     */
+    public List<int[]> getMovesFromAttacks(Bitboard attacks, PieceColor color) {
+        Bitboard targets = new Bitboard(attacks).andNot(position.getOccupancy(color));
+        List<int[]> moves = new ArrayList<>(targets.cardinality());
+        int square;
+        while ((square = targets.popLowest()) >= 0) {
+            moves.add(new int[]{Position.fileOf(square), Position.rankOf(square)});
+        }
+        return moves;
+    }
+
+    /**
+     * Fills a caller-supplied list with the moves of the piece on the specified square.
+     * This is the allocation-free counterpart of Piece#getLegalMoves: like that method it follows the movement rules
+     * of the piece, including castling and the pawn double step, but does not check whether the own King is left in check.
+     * The moves are appended as packed ints; see Move for the encoding.
+     * @param x The x-coordinate of the piece.
+     * @param y The y-coordinate of the piece.
+     * @param moves The list the moves are appended to.
+     * @see MoveGenerator#generatePieceMoves(Position, int, MoveList)
+     */
+    public void getLegalMoves(int x, int y, MoveList moves) {
+        if (Position.isOnBoard(x, y)) {
+            moveGenerator.generatePieceMoves(position, Position.square(x, y), moves);
+        }
+    }
+
+    /**
+     * Removes from a caller-supplied list every move that would leave the mover's own King in check.
+     * This is the allocation-free counterpart of Piece#safeMove. The order of the remaining moves is not preserved.
+     * @param moves The list of moves to filter in place.
+     * @see MoveGenerator#filterLegal(Position, MoveList)
+     */
+    public void safeMove(MoveList moves) {
+        moveGenerator.filterLegal(position, moves);
+    }
+
+    /**
+     * Fills a caller-supplied list with the legal moves of the piece on the specified square.
+     * This replaces the getLegalMoves and safeMove pair: the generator works out checks and pins once,
+     * so every move it emits already keeps the own King safe and nothing has to be played and taken back.
+     * @param x The x-coordinate of the piece.
+     * @param y The y-coordinate of the piece.
+     * @param moves The list the moves are appended to.
+     * @see MoveGenerator#generateLegalPieceMoves(Position, int, MoveList)
+     */
+    public void getSafeMoves(int x, int y, MoveList moves) {
+        if (Position.isOnBoard(x, y)) {
+            moveGenerator.generateLegalPieceMoves(position, Position.square(x, y), moves);
+        }
+    }
+
+    /**
+     * Retrieves the legal target squares of the piece on the specified square, in the format used by highlightLegalMoves.
+     * @param x The x-coordinate of the piece.
+     * @param y The y-coordinate of the piece.
+     * @return A list of target squares as int arrays [x, y].
+     * @see #getSafeMoves(int, int, MoveList)
+     */
+    public List<int[]> getSafeMoves(int x, int y) {
+        MoveList moves = new MoveList();
+        getSafeMoves(x, y, moves);
+        return toTargetList(moves);
+    }
+
+    /**
+     * Converts a list of packed moves into the [x, y] target format used by highlightLegalMoves.
+     * @param moves The packed moves.
+     * @return A list of target squares as int arrays [x, y].
+     * @see #highlightLegalMoves(Piece, List)
+     */
+    public List<int[]> toTargetList(MoveList moves) {
+        List<int[]> targets = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int to = Move.to(moves.get(i));
+            targets.add(new int[]{Position.fileOf(to), Position.rankOf(to)});
+        }
+        return targets;
+    }
+
+    /**
+     * Plays a packed move on the board's Position without any animation, for search and move probing.
+     * Unlike movePieceNow, the captured piece, the moved flags, the castling Rook and a pawn promotion are all recorded
+     * on the Position's preallocated undo stack, so unmakeMove restores the exact previous state and nothing is allocated.
+     * Tiles and Piece objects are not touched, so every makeMove must be taken back before the board is drawn
+     * or moved by the GUI again.
+     * @param move The packed move, as produced by getLegalMoves(int, int, MoveList).
+     * @see #unmakeMove()
+     * @see Position#makeMove(int)
+     */
+    public void makeMove(int move) {
+        position.makeMove(move);
+    }
+
+    /**
+     * Takes back the last move played with makeMove.
+     * @see #makeMove(int)
+     * @see Position#unmakeMove()
+     */
+    public void unmakeMove() {
+        position.unmakeMove();
+    }
+
+    /**
+     * Checks whether a move is still being animated on the board.
+     * @return true while a piece, or the Rook of a castling move, is sliding to its target square.
+     * @see #updateMovingPiece()
+     */
+    public boolean isAnimating() {
+        return movingPiece != null || movingRook != null;
+    }
+
+    /**
+     * Evaluates the exchange of captures started by moving the piece on one square to another.
+     * Both sides keep recapturing on the target square with their least valuable piece for as long as it pays off,
+     * using the pieces' values, and the result is the material the moving side ends up winning or losing.
+     * No move is played, so the query is cheap enough to run for every piece on every frame.
+     * @param fromX The x-coordinate of the moving piece.
+     * @param fromY The y-coordinate of the moving piece.
+     * @param toX The x-coordinate of the target square.
+     * @param toY The y-coordinate of the target square.
+     * @return The net material gain of the moving side, negative for a losing trade,
+     *         or 0 if the move is not legal.
+     * @see StaticExchange#evaluate(Position, int)
+     */
+    public int staticExchange(int fromX, int fromY, int toX, int toY) {
+        if (!Position.isOnBoard(toX, toY)) {
+            return 0;
+        }
+        exchangeMoves.clear();
+        getSafeMoves(fromX, fromY, exchangeMoves);
+        int to = Position.square(toX, toY);
+        for (int i = 0; i < exchangeMoves.size(); i++) {
+            int move = exchangeMoves.get(i);
+            if (Move.to(move) == to) {
+                return staticExchange.evaluate(position, move);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks whether the piece on the specified square is hanging, that is whether the opponent can win material
+     * by starting an exchange on it, either because it is not defended or because a cheaper piece attacks it.
+     * @param x The x-coordinate of the piece.
+     * @param y The y-coordinate of the piece.
+     * @return true if the opponent wins material by capturing the piece, false otherwise or if the square is empty.
+     * @see StaticExchange#threat(Position, int)
+     */
+    public boolean isPieceHanging(int x, int y) {
+        return Position.isOnBoard(x, y) && staticExchange.threat(position, Position.square(x, y)) > 0;
+    }
+
+    /**
+     * Retrieves the move generator working on this board's Position.
+     * @return The MoveGenerator of this board.
+     */
+    public MoveGenerator getMoveGenerator() {
+        return moveGenerator;
     }
 
     /**
@@ -418,11 +788,13 @@ public class Board {
      */
     public void highlightLegalMoves(Piece piece, List<int[]> legalMoves) {
         if (legalMoves != null) {
+            Bitboard opponents = position.getOccupancy(Position.opposite(piece.getColor()));
             for (int[] move : legalMoves) {
             Tile targetTile = tiles[move[0]][move[1]];
-                if (targetTile.getPiece() == null) {
+            int square = Position.square(move[0], move[1]);
+                if (position.isEmpty(square)) {
                     targetTile.drawHighlight(196,224,232);
-                } else if (targetTile.getPiece().getColor() != piece.getColor()) {
+                } else if (opponents.get(square)) {
                     targetTile.drawHighlight(255, 164, 102);
                 }
             }
@@ -434,8 +806,8 @@ public class Board {
      * This method is responsible for resetting the highlight state of all tiles to false, effectively removing any existing highlights.
      * The method performs the following actions:
      * Iterates over each row of tiles on the game board.
-     * For each tile in the row, sets the highlight state to false.
-     * @see Tile#isHighlight
+     * For each tile in the row, clears the highlight, which marks the tile dirty if it was highlighted.
+     * @see Tile#clearHighlight()
      */
     public void deHighlightTiles()
     {
@@ -443,7 +815,7 @@ public class Board {
         {
             for(Tile tile :row)
             {
-                tile.isHighlight = false;
+                tile.clearHighlight();
             }
         }
     }
@@ -458,8 +830,7 @@ public class Board {
      * Checks if the character represents a chess piece.
      * Determines the color and type of the piece based on the character's case and symbol.
      * Creates a new piece object using the specified color, type, column, and row.
-     * Retrieves the corresponding tile at the specified column and row.
-     * Sets the created piece on the tile.
+     * Places the created piece on the corresponding tile and in the Position as an unmoved piece.
      * @param layoutFilename The filename of the layout file containing the chessboard configuration.
      * @see BufferedReader
      * @see FileReader
@@ -491,8 +862,7 @@ public class Board {
                     type = PieceType.fromSymbol(String.valueOf(pieceChar));
                     if (type != null) {
                         Piece piece = Piece.createPiece(app, type, color, col, row);
-                        Tile tile = getTileAt(col, row);
-                        tile.setPiece(piece);
+                        placePiece(col, row, piece);
                     }
                 }
                 row++;
@@ -510,22 +880,19 @@ public class Board {
      * Checks if a specific tile on the game board is occupied by an opponent's piece.
      * This method determines if the specified tile contains a piece and if that piece belongs to the opponent of the current player.
      * The method performs the following actions:
-     * Retrieves the tile at the specified coordinates (x, y).
-     * Retrieves the piece on the tile.
-     * Returns true if the piece exists and its color is not the same as the current player's color, indicating it belongs to the opponent.
+     * Tests the square against the opponent's occupancy bitboard.
+     * Returns true if the square holds a piece whose color is not the same as the current player's color, indicating it belongs to the opponent.
      * Returns false otherwise.
      * @param x The x-coordinate of the tile on the game board.
      * @param y The y-coordinate of the tile on the game board.
      * @param currentPlayerColor The color of the current player.
-     * @see Tile
-     * @see Piece
+     * @see Position#getOccupancy(PieceColor)
      * @see PieceColor
      * @return true if the tile is occupied by an opponent's piece, false otherwise.
      */
     public boolean isTileOccupiedByOpponent(int x, int y, PieceColor currentPlayerColor) {
-        Tile tile = getTileAt(x, y);
-        Piece piece = tile.getPiece();
-        return piece != null && piece.getColor() != currentPlayerColor;
+        return Position.isOnBoard(x, y)
+                && position.getOccupancy(Position.opposite(currentPlayerColor)).get(Position.square(x, y));
     }
 
     /**
@@ -533,8 +900,7 @@ public class Board {
      * This method replaces a pawn piece with a queen piece at the specified tile coordinates (x, y), effectively upgrading the pawn.
      * The method performs the following actions:
      * Creates a new queen piece object using the provided application instance, color, and tile coordinates.
-     * Retrieves the tile at the specified coordinates (x, y).
-     * Sets the new queen piece on the tile, replacing the existing pawn piece.
+     * Sets the new queen piece on the tile and in the Position, replacing the existing pawn piece.
      * @param app The application instance.
      * @param x The x-coordinate of the tile on the game board.
      * @param y The y-coordinate of the tile on the game board.
@@ -546,34 +912,31 @@ public class Board {
      */
     public void upgradePawnToQueen(App app, int x, int y, PieceColor color) {
         Queen newQueen = new Queen(app, color, x, y);
-        tiles[x][y].setPiece(newQueen);
+        markMoved(newQueen);
+        placePiece(x, y, newQueen);
     }
 
     /**
      * Retrieves a list of pieces on the game board that belong to a specific color.
      * This method returns all the pieces on the board that have the specified color.
      * The method performs the following actions:
-     * Creates a new ArrayList to store the pieces of the specified color.
-     * Iterates over each tile on the game board.
-     * Retrieves the piece on the current tile.
-     * If the piece exists and its color matches the specified color, adds the piece to the list.
+     * Creates a new ArrayList, sized for the pieces of the specified color.
+     * Walks the Position's piece list of every type of that color.
+     * Adds the piece standing on each of those squares to the list.
      * Returns the list of pieces of the specified color.
+     * Callers that only need to walk the pieces should use getPieceCount and getPiece, which do not allocate.
      * @param color The color of the pieces to retrieve.
      * @see List
      * @see Piece
      * @see PieceColor
-     * @see Tile
-     * @see Tile#getPiece()
+     * @see #getPiece(PieceType, PieceColor, int)
      * @return A list of pieces that belong to the specified color.
      */
     public List<Piece> getPiecesByColor(PieceColor color) {
-        List<Piece> piecesByColor = new ArrayList<>();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Piece piece = getTileAt(i, j).getPiece();
-                if (piece != null && piece.getColor() == color) {
-                    piecesByColor.add(piece);
-                }
+        List<Piece> piecesByColor = new ArrayList<>(position.getOccupancy(color).cardinality());
+        for (PieceType type : PieceType.values()) {
+            for (int i = 0; i < position.getPieceCount(type, color); i++) {
+                piecesByColor.add(pieces[position.getPieceSquare(type, color, i)]);
             }
         }
         return piecesByColor;
@@ -583,86 +946,90 @@ public class Board {
      * Retrieves a list of pieces on the game board that belong to a specific type and color.
      * This method returns all the pieces on the board that have the specified type and color.
      * The method performs the following actions:
-     * Creates a new ArrayList to store the pieces of the specified type and color.
-     * Retrieves the list of pieces that belong to the specified color using the getPiecesByColor() method.
-     * Iterates over each piece in the list.
-     * If the piece's type matches the specified type, adds the piece to the result list.
+     * Creates a new ArrayList, sized for the pieces of the specified type and color.
+     * Walks the Position's piece list of that type and color.
+     * Adds the piece standing on each of its squares to the result list.
      * Returns the list of pieces that match the specified type and color.
+     * Callers that only need to walk the pieces should use getPieceCount and getPiece, which do not allocate.
      * @param type The type of the pieces to retrieve.
      * @param color The color of the pieces to retrieve.
      * @see List
      * @see Piece
      * @see PieceType
      * @see PieceColor
-     * @see #getPiecesByColor(PieceColor)
+     * @see #getPiece(PieceType, PieceColor, int)
      * @return A list of pieces that belong to the specified type and color.
      */
     public List<Piece> getPieceByType(PieceType type, PieceColor color) {
-        List<Piece> pieces = new ArrayList<>();
-        List<Piece> piecesByColor = getPiecesByColor(color);
-        for (Piece piece : piecesByColor) {
-            if (piece.getType() == type) {
-                pieces.add(piece);
-            }
+        int count = position.getPieceCount(type, color);
+        List<Piece> piecesByType = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            piecesByType.add(pieces[position.getPieceSquare(type, color, i)]);
         }
-        return pieces;
+        return piecesByType;
+    }
+
+    /**
+     * Retrieves the number of pieces of a specific type and color on the game board.
+     * The count is read from the Position's piece lists, which every change to the board keeps up to date,
+     * whether it comes from movePiece, movePieceNow, setupBoard or upgradePawnToQueen.
+     * @param type The type of the pieces.
+     * @param color The color of the pieces.
+     * @return The number of pieces of that type and color.
+     * @see Position#getPieceCount(PieceType, PieceColor)
+     */
+    public int getPieceCount(PieceType type, PieceColor color) {
+        return position.getPieceCount(type, color);
+    }
+
+    /**
+     * Retrieves one of the pieces of a specific type and color, by index, without allocating.
+     * Walking the pieces of one kind is a loop from 0 to getPieceCount; the order changes as pieces are captured,
+     * so the board must not be changed during the loop.
+     * @param type The type of the piece.
+     * @param color The color of the piece.
+     * @param index The index of the piece, from 0 to getPieceCount - 1.
+     * @return The piece.
+     * @see Position#getPieceSquare(PieceType, PieceColor, int)
+     */
+    public Piece getPiece(PieceType type, PieceColor color, int index) {
+        return pieces[position.getPieceSquare(type, color, index)];
+    }
+
+    /**
+     * Retrieves the King of a color in constant time, from the King square the Position keeps.
+     * @param color The color of the King.
+     * @return The King, or null if that color has no King on the board.
+     * @see Position#getKingSquare(PieceColor)
+     */
+    public Piece getKing(PieceColor color) {
+        int square = position.getKingSquare(color);
+        return square < 0 ? null : pieces[square];
     }
 
     /**
      * Checks if the specified color is in checkmate on the given board.
      * This method determines if the specified color is in a checkmate position, where their king is in check and there are no legal moves to escape the check.
      * The method performs the following actions:
-     * Retrieves the king of the specified color from the list of pieces on the board.
-     * If no king is found, returns false.
+     * If the color has no King on the board, returns false.
      * If the king is not in check, returns false.
-     * Iterates over each piece of the specified color.
-     * Retrieves the legal moves for the piece.
-     * Checks if any of the legal moves can result in a safe move (i.e., the king is not in check after the move).
-     * If a safe move is found, returns false.
-     * If no piece can make a safe move, returns true (indicating checkmate).
+     * If the color is to move and has no legal move, returns true (indicating checkmate).
+     * For the side to move, the answer is read from the status evaluated when the last move was completed,
+     * so asking on every frame costs nothing; for the other color, its check evasions are generated.
      * @param board The game board.
      * @param color The color to check for checkmate.
      * @return true if the specified color is in checkmate, false otherwise.
      * @see Board
      * @see PieceColor
-     * @see Piece
-     * @see King
-     * @see King#isInCheck(Board)
-     * @see Piece#safeMove(List, int, int, Board)
-     * @see List
-     * @see int[]
+     * @see #isInCheck(PieceColor)
+     * @see #getStatus()
      */
     public boolean checkmate(Board board, PieceColor color) {
-        // Get the king
-        King king = null;
-        List<Piece> pieces = board.getPiecesByColor(color);
-        for (Piece piece : pieces) {
-            if (piece instanceof King) {
-                king = (King) piece;
-                break;
-            }
-        }
-
-        // If no king is found, return false
-        if (king == null) {
-            return false;
-        }
-
-        // If king is not in check, return false
-        if (!king.isInCheck(board)) {
-            return false;
+        GameStatus status = board.getStatus();
+        if (color == status.getSideToMove()) {
+            return status.isCheckmate(color);
         }
-
-        // Check if any piece can make a safe move
-        for (Piece piece : pieces) {
-            List<int[]> legalMoves = piece.safeMove(piece.getLegalMoves(piece.getX(), piece.getY(), board), piece.getX(), piece.getY(), board);
-            if (legalMoves.size() > 0) {
-                return false;
-            }
-        }
-        // If no piece can make a safe move, return true (checkmate)
-        return true;
+        return board.getGame().isCheckmate(color);
     }
 
 }
-
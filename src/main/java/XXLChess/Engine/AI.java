@@ -0,0 +1,349 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AI class represents an artificial intelligence player in the XXLChess game.
+ * It is responsible for making intelligent moves for the computer player.
+ * It works on Positions and packed moves only, so it runs the same in the window, where the Board hands it its Position,
+ * and in a headless Game.
+ * The moves are chosen by an iterative-deepening alpha-beta Search, which keeps its results in a transposition table
+ * that lives as long as the AI, so positions analysed for one move are not searched from scratch on the next.
+ * With more than one thread the search runs as a Lazy SMP ParallelSearch, with helper threads sharing the table.
+ * On a clock, the time of every move is planned by a TimeManager from the AI's remaining time and increment.
+ * Fixed depth or node limits can be set instead, so that games and benchmarks can be reproduced.
+ * In the game the AI thinks on a worker thread of its own, so that drawing, animation and the clocks carry on at full
+ * frame rate: startThinking takes a snapshot of the game's Position, and the draw loop picks the move up with pollMove
+ * once it is ready. The move is handed over through a single atomic value tagged with the number of the search it
+ * belongs to, so no lock is taken, and a search that was cancelled can never deliver its move into a later turn.
+ * Every search on the worker also gets a stop request of its own, so a search that is cancelled before the worker has
+ * even started it still stops at once, instead of running out its limits and holding up the next search.
+ * While the player thinks, the AI can ponder: it predicts the player's reply from the transposition table, which holds
+ * the best answer found to its own move, and searches the position after that reply until the player moves,
+ * but never for longer than the time left on the AI's own clock.
+ * If the player makes the predicted move, the ponder search simply becomes the search for the AI's move:
+ * the time already spent pondering counts towards the move, so the AI usually answers at once, and nothing is lost.
+ * Otherwise the ponder search is cancelled and a new search starts, helped by what the ponder search left in the table.
+ * @see Search
+ * @see ParallelSearch
+ * @see TimeManager
+ * @see Game
+ */
+public class AI {
+    /**
+     * The deepest iteration the AI searches to.
+     */
+    public static final int MAX_DEPTH = 64;
+    /**
+     * The time the AI thinks about a move, in milliseconds.
+     */
+    public static final long THINK_MILLIS = 1000;
+    /**
+     * The value pollMove returns while the AI is still thinking or has not been asked for a move.
+     */
+    public static final int PENDING = -1;
+    private static final long NO_RESULT = -1L;
+
+    private PieceColor color;
+    private final TranspositionTable transpositionTable;
+    private final ParallelSearch search;
+    private volatile SearchInfo lastInfo;
+    private TimeManager fixedLimits;
+    private volatile boolean verbose;
+    private ExecutorService worker;
+    private final AtomicLong handoff = new AtomicLong(NO_RESULT);
+    private volatile int generation;
+    private AtomicBoolean stopRequest = new AtomicBoolean();
+    private boolean thinking;
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList replies = new MoveList();
+    private boolean pondering;
+    private long ponderRootKey;
+    private long ponderKey;
+    private long ponderStart;
+    private long ponderDeadline;
+
+    /**
+     * Constructs an AI object with the specified color.
+     * The transposition table is kept by the caller, so that what the AI learns on one move is still there on the next.
+     * @param color The color of the AI player.
+     * @param transpositionTable The table search results are cached in.
+     * @param threads The number of search threads; 1 searches on the calling thread only.
+     * @see TranspositionTable
+     */
+    public AI(PieceColor color, TranspositionTable transpositionTable, int threads) {
+        this.color = color;
+        this.transpositionTable = transpositionTable;
+        this.search = new ParallelSearch(transpositionTable, threads);
+        this.search.setListener(info -> lastInfo = info);
+    }
+
+    /**
+     * Retrieves the color the AI plays.
+     * @return The color of the AI player.
+     */
+    public PieceColor getColor() {
+        return color;
+    }
+
+    /**
+     * Retrieves the transposition table the AI caches its search results in.
+     * @return The transposition table.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Retrieves the report of the deepest iteration completed while choosing the last move.
+     * @return The depth, score, node count and time of the last search, or null before the first move.
+     */
+    public SearchInfo getLastInfo() {
+        return lastInfo;
+    }
+
+    /**
+     * Sets fixed limits that replace the clock, such as a fixed depth or node count for reproducible games.
+     * @param fixedLimits The limits every move is searched with, or null to play on the clock.
+     * @see TimeManager#fixedDepth(int)
+     * @see TimeManager#fixedNodes(long)
+     */
+    public void setFixedLimits(TimeManager fixedLimits) {
+        this.fixedLimits = fixedLimits;
+    }
+
+    /**
+     * Sets whether the AI prints the report of every search to System.out, which it does not by default,
+     * so that headless runs that play many games at once, such as a Tournament, stay quiet.
+     * The windowed game turns it on.
+     * @param verbose true to print a report after every move, false to stay quiet.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Generates and returns a move for the AI player,
+     * thinking for THINK_MILLIS milliseconds unless fixed limits are set.
+     * @param position The position of the game; it is copied, not changed.
+     * @return The packed move, or Move.NONE if the AI has no legal move.
+     * @see #getMove(Position, TimeManager)
+     */
+    public int getMove(Position position) {
+        return getMove(position, new TimeManager(THINK_MILLIS, THINK_MILLIS, TimeManager.UNLIMITED, MAX_DEPTH));
+    }
+
+    /**
+     * Generates and returns a move for the AI player, planning its time from the AI's clock.
+     * The expected number of moves to go is estimated from the pieces left on the board.
+     * @param position The position of the game; it is copied, not changed.
+     * @param remainingMillis The time left on the AI's clock, in milliseconds.
+     * @param incrementMillis The time added to the AI's clock after the move, in milliseconds.
+     * @return The packed move, or Move.NONE if the AI has no legal move.
+     * @see TimeManager#forClock(long, long, int)
+     */
+    public int getMove(Position position, long remainingMillis, long incrementMillis) {
+        int movesToGo = TimeManager.estimateMovesToGo(position);
+        return getMove(position, TimeManager.forClock(remainingMillis, incrementMillis, movesToGo));
+    }
+
+    /**
+     * Generates and returns a move for the AI player within the given limits.
+     * The AI searches the position with iterative deepening and plays the best move of the deepest iteration
+     * it completed. The Position is copied once, so the game is not touched during the search.
+     * Fixed limits set with setFixedLimits take the place of the given limits.
+     * @param position The position of the game; it is copied, not changed.
+     * @param limits The time, node and depth limits of the search.
+     * @return The packed move, or Move.NONE if the AI has no legal move.
+     * @see ParallelSearch#search(Position, TimeManager)
+     */
+    public int getMove(Position position, TimeManager limits) {
+        return think(new Position(position), limits, new AtomicBoolean());
+    }
+
+    /**
+     * Starts searching for a move on the AI's worker thread and returns at once.
+     * The Position is copied before this method returns, so the board may be drawn and animated while the AI thinks.
+     * The time of the move is planned from the AI's clock as in getMove(Position, long, long).
+     * If the AI has been pondering on exactly this position, the ponder search is kept instead:
+     * it is stopped once the time spent on it reaches the soft limit of the move, which may already be the case.
+     * Any other search that is still running is cancelled first.
+     * @param position The position of the game; it is copied, not changed.
+     * @param remainingMillis The time left on the AI's clock, in milliseconds.
+     * @param incrementMillis The time added to the AI's clock after the move, in milliseconds.
+     * @see #pollMove()
+     * @see #cancel()
+     */
+    public void startThinking(Position position, long remainingMillis, long incrementMillis) {
+        int movesToGo = TimeManager.estimateMovesToGo(position);
+        TimeManager limits = TimeManager.forClock(remainingMillis, incrementMillis, movesToGo);
+        ponderRootKey = 0;
+        if (pondering && position.getKey() == ponderKey) {
+            pondering = false;
+            thinking = true;
+            long now = System.nanoTime();
+            ponderDeadline = fixedLimits != null ? 0
+                    : Math.max(1, Math.min(ponderStart + limits.getSoftMillis(0) * 1_000_000L, now + limits.getHardMillis() * 1_000_000L));
+            return;
+        }
+        cancel();
+        thinking = true;
+        startSearch(new Position(position), limits);
+    }
+
+    /**
+     * Starts pondering on the player's turn, unless the AI is already pondering on or has pondered the position.
+     * The player's reply is predicted from the best move the transposition table holds for the position,
+     * and the position after that reply is searched until the player moves.
+     * The search is capped at the time left on the AI's clock: the AI could never use more than that on its move,
+     * and a player who takes longer than that leaves a search that would otherwise never stop.
+     * If the table holds no legal move for the position, the AI does not ponder on this turn.
+     * @param position The position of the game, with the player to move; it is copied, not changed.
+     * @param remainingMillis The time left on the AI's clock, in milliseconds.
+     * @see #startThinking(Position, long, long)
+     */
+    public void ponder(Position position, long remainingMillis) {
+        if (thinking || position.getKey() == ponderRootKey) {
+            return;
+        }
+        cancel();
+        ponderRootKey = position.getKey();
+        Position snapshot = new Position(position);
+        int reply = predictReply(snapshot);
+        if (reply == Move.NONE) {
+            return;
+        }
+        snapshot.makeMove(reply);
+        ponderKey = snapshot.getKey();
+        pondering = true;
+        ponderStart = System.nanoTime();
+        long capMillis = Math.max(1, remainingMillis);
+        startSearch(snapshot, new TimeManager(capMillis, capMillis, TimeManager.UNLIMITED, Search.MAX_PLY));
+    }
+
+    /**
+     * Checks whether the AI is pondering on the player's turn.
+     * @return true from ponder until the player's move is known.
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Checks whether the AI has been asked for a move that has not been picked up with pollMove yet.
+     * @return true from startThinking until the move is polled or the search is cancelled.
+     */
+    public boolean isThinking() {
+        return thinking;
+    }
+
+    /**
+     * Picks up the move of the search started by startThinking, if it has finished.
+     * It never blocks, so it can be called on every frame.
+     * @return PENDING while the AI is still thinking or when no search was started, Move.NONE if the AI has no legal move,
+     *         or otherwise the packed move.
+     */
+    public int pollMove() {
+        if (ponderDeadline != 0 && System.nanoTime() >= ponderDeadline) {
+            ponderDeadline = 0;
+            stop();
+        }
+        long result = handoff.get();
+        if (!thinking || (int) (result >>> 32) != generation || !handoff.compareAndSet(result, NO_RESULT)) {
+            return PENDING;
+        }
+        thinking = false;
+        ponderDeadline = 0;
+        return (int) result;
+    }
+
+    /**
+     * Cancels the search started by startThinking or ponder, if any. Its move is discarded and never returned by pollMove.
+     */
+    public void cancel() {
+        if (thinking || pondering) {
+            thinking = false;
+            pondering = false;
+            ponderDeadline = 0;
+            generation++;
+            stop();
+        }
+    }
+
+    /**
+     * Asks a running search to return its best move so far.
+     */
+    public void stop() {
+        stopRequest.set(true);
+        search.stop();
+    }
+
+    /**
+     * Stops the AI's worker and helper threads for good, when the AI is replaced.
+     */
+    public void shutdown() {
+        cancel();
+        search.shutdown();
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a search of a snapshot on the worker thread, to be handed over under a new search number,
+     * with a new stop request that stop and cancel set.
+     * The worker thread is only started by the first such search, so an AI that only plays with getMove never has one.
+     */
+    private void startSearch(Position snapshot, TimeManager limits) {
+        int searchNumber = ++generation;
+        AtomicBoolean request = new AtomicBoolean();
+        stopRequest = request;
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "ai-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        worker.execute(() -> {
+            if (searchNumber == generation) {
+                handoff.set((long) searchNumber << 32 | (think(snapshot, limits, request) & 0xFFFFFFFFL));
+            }
+        });
+    }
+
+    /**
+     * Predicts the reply of the side to move from the best move the transposition table holds for the position.
+     * @return The predicted move, or Move.NONE if the table holds no legal move for the position.
+     */
+    private int predictReply(Position position) {
+        long entry = transpositionTable.probe(position.getKey());
+        if (entry == 0) {
+            return Move.NONE;
+        }
+        int move = TranspositionTable.move(entry);
+        replies.clear();
+        generator.generateLegal(position, position.getSideToMove(), replies);
+        return replies.contains(move) ? move : Move.NONE;
+    }
+
+    /**
+     * Searches a snapshot of the game for the AI's color until it is done or the stop request is set and,
+     * unless it is quiet, prints the report of the deepest completed iteration.
+     * @return The packed best move, or Move.NONE if the AI has no legal move.
+     */
+    private int think(Position snapshot, TimeManager limits, AtomicBoolean request) {
+        snapshot.setSideToMove(color);
+        lastInfo = null;
+        int move = search.search(snapshot, fixedLimits != null ? fixedLimits : limits, request);
+        if (verbose && lastInfo != null) {
+            System.out.println(lastInfo);
+        }
+        return move;
+    }
+}
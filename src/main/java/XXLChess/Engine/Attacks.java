@@ -0,0 +1,300 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+
+import static XXLChess.Engine.Position.SQUARES;
+
+/**
+ * The Attacks class holds the precomputed attack tables for the 14x14 board.
+ * For every square and each of the eight directions it stores the ray of squares a slider would cross on an empty board,
+ * and for every leaper pattern (Knight, Camel, King, General and the Pawn capture) it stores the destination set.
+ * The tables are built once when the class is loaded, so a leaper's moves are a single lookup masked by friendly occupancy.
+ * Slider attacks for a given occupancy are found by taking each ray, locating its first blocker with a single bit scan,
+ * and removing the part of the ray that lies behind that blocker. The blocker itself stays in the set, so captures
+ * are included and friendly pieces must be masked out by the caller.
+ */
+public final class Attacks {
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+    public static final int NORTH_EAST = 4;
+    public static final int SOUTH_EAST = 5;
+    public static final int SOUTH_WEST = 6;
+    public static final int NORTH_WEST = 7;
+    /**
+     * The number of ray directions.
+     */
+    public static final int DIRECTIONS = 8;
+
+    private static final int[] DX = {0, 1, 0, -1, 1, 1, -1, -1};
+    private static final int[] DY = {-1, 0, 1, 0, -1, 1, 1, -1};
+    private static final int[] ORTHOGONAL = {NORTH, EAST, SOUTH, WEST};
+    private static final int[] DIAGONAL = {NORTH_EAST, SOUTH_EAST, SOUTH_WEST, NORTH_WEST};
+
+    private static final int[][] KNIGHT_OFFSETS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] CAMEL_OFFSETS = {{1, 3}, {3, 1}, {3, -1}, {1, -3}, {-1, -3}, {-3, -1}, {-3, 1}, {-1, 3}};
+    private static final int[][] KING_OFFSETS = {{0, -1}, {1, -1}, {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}};
+
+    private static final int[][] DIRECTION_INDEX = {
+            {NORTH_WEST, NORTH, NORTH_EAST},
+            {WEST, -1, EAST},
+            {SOUTH_WEST, SOUTH, SOUTH_EAST}
+    };
+
+    private static final Bitboard[][] RAYS = new Bitboard[DIRECTIONS][SQUARES];
+    private static final Bitboard[] KNIGHT = leaperTable(KNIGHT_OFFSETS);
+    private static final Bitboard[] CAMEL = leaperTable(CAMEL_OFFSETS);
+    private static final Bitboard[] KING = leaperTable(KING_OFFSETS);
+    private static final Bitboard[] GENERAL = new Bitboard[SQUARES];
+    private static final Bitboard[][] PAWN = {
+            leaperTable(new int[][]{{-1, -1}, {1, -1}}),
+            leaperTable(new int[][]{{-1, 1}, {1, 1}})
+    };
+    /**
+     * Whether a direction walks towards higher square indices, in which case its first blocker is the lowest set bit.
+     */
+    private static final boolean[] ASCENDING = new boolean[DIRECTIONS];
+
+    static {
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            ASCENDING[direction] = DY[direction] > 0 || (DY[direction] == 0 && DX[direction] > 0);
+            for (int square = 0; square < SQUARES; square++) {
+                Bitboard ray = new Bitboard();
+                int x = Position.fileOf(square) + DX[direction];
+                int y = Position.rankOf(square) + DY[direction];
+                while (Position.isOnBoard(x, y)) {
+                    ray.set(Position.square(x, y));
+                    x += DX[direction];
+                    y += DY[direction];
+                }
+                RAYS[direction][square] = ray;
+            }
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            GENERAL[square] = new Bitboard(KING[square]).or(KNIGHT[square]);
+        }
+    }
+
+    /**
+     * Builds the destination table of a leaper from its list of (dx, dy) jumps, dropping jumps that leave the board.
+     * @param offsets The jumps of the leaper.
+     * @return The destination set for every square.
+     */
+    private static Bitboard[] leaperTable(int[][] offsets) {
+        Bitboard[] table = new Bitboard[SQUARES];
+        for (int square = 0; square < SQUARES; square++) {
+            Bitboard targets = new Bitboard();
+            for (int[] offset : offsets) {
+                int x = Position.fileOf(square) + offset[0];
+                int y = Position.rankOf(square) + offset[1];
+                if (Position.isOnBoard(x, y)) {
+                    targets.set(Position.square(x, y));
+                }
+            }
+            table[square] = targets;
+        }
+        return table;
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * Retrieves the ray leaving a square in one direction on an empty board, not including the square itself.
+     * The returned bitboard is shared and must not be modified.
+     * @param direction One of the direction constants.
+     * @param square The square index.
+     * @return The ray of squares.
+     */
+    public static Bitboard ray(int direction, int square) {
+        return RAYS[direction][square];
+    }
+
+    /**
+     * Retrieves the x-step of a direction.
+     * @param direction One of the direction constants.
+     * @return -1, 0 or 1.
+     */
+    public static int dx(int direction) {
+        return DX[direction];
+    }
+
+    /**
+     * Retrieves the y-step of a direction.
+     * @param direction One of the direction constants.
+     * @return -1, 0 or 1.
+     */
+    public static int dy(int direction) {
+        return DY[direction];
+    }
+
+    /**
+     * Finds the direction that leads from one square to another along a file, rank or diagonal.
+     * @param from The starting square.
+     * @param to The target square.
+     * @return One of the direction constants, or -1 if the squares are equal or not on a common line.
+     */
+    public static int direction(int from, int to) {
+        int dx = Position.fileOf(to) - Position.fileOf(from);
+        int dy = Position.rankOf(to) - Position.rankOf(from);
+        if ((dx == 0 && dy == 0) || (dx != 0 && dy != 0 && Math.abs(dx) != Math.abs(dy))) {
+            return -1;
+        }
+        return DIRECTION_INDEX[Integer.signum(dy) + 1][Integer.signum(dx) + 1];
+    }
+
+    /**
+     * Adds the squares strictly between two squares on a common line, together with the second square,
+     * which is exactly the set of squares where a piece can stop a check from a slider on {@code to}.
+     * Nothing is added if the squares are not on a common line.
+     * @param from The first square, typically the King.
+     * @param to The second square, typically the checking piece.
+     * @param out The bitboard the squares are added to.
+     * @return The out bitboard.
+     */
+    public static Bitboard addSegment(int from, int to, Bitboard out) {
+        int direction = direction(from, to);
+        if (direction >= 0) {
+            out.orAndNot(RAYS[direction][from], RAYS[direction][to]);
+        }
+        return out;
+    }
+
+    /**
+     * Checks whether a direction runs along a file or rank rather than a diagonal.
+     * @param direction One of the direction constants.
+     * @return true for NORTH, EAST, SOUTH and WEST.
+     */
+    public static boolean isOrthogonal(int direction) {
+        return direction < 4;
+    }
+
+    /**
+     * Retrieves the squares a Knight on the given square attacks. The returned bitboard is shared and must not be modified.
+     * @param square The square of the Knight.
+     * @return The Knight destinations.
+     */
+    public static Bitboard knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * Retrieves the squares a Camel on the given square attacks. The returned bitboard is shared and must not be modified.
+     * @param square The square of the Camel.
+     * @return The Camel destinations.
+     */
+    public static Bitboard camelAttacks(int square) {
+        return CAMEL[square];
+    }
+
+    /**
+     * Retrieves the squares a King on the given square attacks. The returned bitboard is shared and must not be modified.
+     * @param square The square of the King.
+     * @return The eight neighbouring squares that lie on the board.
+     */
+    public static Bitboard kingAttacks(int square) {
+        return KING[square];
+    }
+
+    /**
+     * Retrieves the squares a General, which moves as a King and a Knight, attacks from the given square.
+     * The returned bitboard is shared and must not be modified.
+     * @param square The square of the General.
+     * @return The General destinations.
+     */
+    public static Bitboard generalAttacks(int square) {
+        return GENERAL[square];
+    }
+
+    /**
+     * Retrieves the two diagonal squares a Pawn on the given square captures on.
+     * White pawns move towards y = 0 and black pawns towards y = 13.
+     * The returned bitboard is shared and must not be modified.
+     * @param color The color of the Pawn.
+     * @param square The square of the Pawn.
+     * @return The Pawn capture squares.
+     */
+    public static Bitboard pawnAttacks(PieceColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * Retrieves the y-step of a pawn push for the given color.
+     * @param color The color of the Pawn.
+     * @return -1 for white and 1 for black.
+     */
+    public static int pawnDirection(PieceColor color) {
+        return color == PieceColor.WHITE ? -1 : 1;
+    }
+
+    /**
+     * Adds the squares a slider on the given square attacks in one direction.
+     * @param direction One of the direction constants.
+     * @param square The square of the slider.
+     * @param occupied The occupied squares of both colors.
+     * @param out The bitboard the attacked squares are added to.
+     * @return The out bitboard.
+     */
+    public static Bitboard addRayAttacks(int direction, int square, Bitboard occupied, Bitboard out) {
+        int blocker = firstBlocker(direction, square, occupied);
+        return out.orAndNot(RAYS[direction][square], blocker < 0 ? Bitboard.EMPTY : RAYS[direction][blocker]);
+    }
+
+    /**
+     * Finds the first occupied square a ray runs into.
+     * @param direction One of the direction constants.
+     * @param square The square the ray starts from.
+     * @param occupied The occupied squares.
+     * @return The first blocker, or -1 if the ray reaches the edge of the board.
+     */
+    public static int firstBlocker(int direction, int square, Bitboard occupied) {
+        Bitboard ray = RAYS[direction][square];
+        return ASCENDING[direction] ? ray.lowestCommon(occupied) : ray.highestCommon(occupied);
+    }
+
+    /**
+     * Computes the squares attacked along files and ranks, as by a Rook or Chancellor.
+     * @param square The square of the slider.
+     * @param occupied The occupied squares of both colors.
+     * @param out The bitboard that receives the result; its previous contents are discarded.
+     * @return The out bitboard.
+     */
+    public static Bitboard rookAttacks(int square, Bitboard occupied, Bitboard out) {
+        out.clearAll();
+        for (int direction : ORTHOGONAL) {
+            addRayAttacks(direction, square, occupied, out);
+        }
+        return out;
+    }
+
+    /**
+     * Computes the squares attacked along diagonals, as by a Bishop or Archbishop.
+     * @param square The square of the slider.
+     * @param occupied The occupied squares of both colors.
+     * @param out The bitboard that receives the result; its previous contents are discarded.
+     * @return The out bitboard.
+     */
+    public static Bitboard bishopAttacks(int square, Bitboard occupied, Bitboard out) {
+        out.clearAll();
+        for (int direction : DIAGONAL) {
+            addRayAttacks(direction, square, occupied, out);
+        }
+        return out;
+    }
+
+    /**
+     * Computes the squares attacked along files, ranks and diagonals, as by a Queen or Amazon.
+     * @param square The square of the slider.
+     * @param occupied The occupied squares of both colors.
+     * @param out The bitboard that receives the result; its previous contents are discarded.
+     * @return The out bitboard.
+     */
+    public static Bitboard queenAttacks(int square, Bitboard occupied, Bitboard out) {
+        out.clearAll();
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            addRayAttacks(direction, square, occupied, out);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,63 @@
+package XXLChess.Engine;
+
+import java.io.IOException;
+
+/**
+ * The Bench class is a command-line benchmark of the parallel search.
+ * It searches the same layout under the same limits with 1, 2, 4, ... threads up to the requested maximum and prints,
+ * for each thread count, the nodes searched per second, the speedup over one thread, the depth reached and the time taken.
+ * The limit is a fixed time per run, or a fixed depth or node count for runs that can be reproduced exactly.
+ * Each run starts with an empty transposition table so the runs do not help each other, and a discarded
+ * single-threaded warm-up run comes first so that the one-thread figure is not slowed down by JIT compilation.
+ * Usage: {@code Bench [layout file] [seconds per run | depth=N | nodes=N] [max threads] [hash megabytes]},
+ * defaulting to level1.txt, 5 seconds, every available core and 256 megabytes.
+ * @see ParallelSearch
+ * @see TimeManager#parse(String)
+ */
+public final class Bench {
+    private Bench() {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args The optional layout file, limit per run, maximum thread count and hash size.
+     * @throws IOException If the layout file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        String layout = args.length > 0 ? args[0] : "level1.txt";
+        TimeManager limits = TimeManager.parse(args.length > 1 ? args[1] : "5");
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+
+        Position position = Position.fromLayout(layout);
+        System.out.printf("layout %s, %s per run, up to %d threads, %d MB hash%n", layout, limits, maxThreads, hashMegabytes);
+        TranspositionTable table = new TranspositionTable(hashMegabytes);
+        ParallelSearch warmUp = new ParallelSearch(table, 1);
+        warmUp.search(position, limits);
+        warmUp.shutdown();
+        long baseNps = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            table.clear();
+            ParallelSearch search = new ParallelSearch(table, threads);
+            int[] depth = new int[1];
+            search.setListener(info -> depth[0] = info.getDepth());
+            long start = System.nanoTime();
+            search.search(position, limits);
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+            long nps = search.getNodes() * 1000 / elapsedMillis;
+            search.shutdown();
+            if (threads == 1) {
+                baseNps = nps;
+            }
+            System.out.printf("threads %3d  nodes %12d  nps %10d  speedup %5.2f  depth %2d  time %6d ms%n",
+                    threads, search.getNodes(), nps, baseNps == 0 ? 0.0 : (double) nps / baseNps, depth[0], elapsedMillis);
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+}
@@ -0,0 +1,337 @@
+package XXLChess.Engine;
+
+/**
+ * The Bitboard class represents a set of squares on the 14x14 XXLChess board.
+ * The 196 squares are stored as a fixed 256-bit set split over four longs, where square index
+ * {@code y * 14 + x} maps to bit {@code index & 63} of word {@code index >>> 6}.
+ * All set operations work a whole word at a time, so occupancy, capture and emptiness queries
+ * cost a handful of bitwise instructions instead of a walk over the tile grid.
+ * Bitboards are mutable so that move generation can reuse scratch instances without allocating.
+ */
+public final class Bitboard {
+    /**
+     * A bitboard with no squares set. It must never be modified.
+     */
+    public static final Bitboard EMPTY = new Bitboard();
+
+    private long w0;
+    private long w1;
+    private long w2;
+    private long w3;
+
+    /**
+     * Constructs an empty bitboard.
+     */
+    public Bitboard() {
+    }
+
+    /**
+     * Constructs a bitboard holding the same squares as another bitboard.
+     * @param other The bitboard to copy.
+     */
+    public Bitboard(Bitboard other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Adds a square to the set.
+     * @param square The square index (0-195).
+     * @return This bitboard.
+     */
+    public Bitboard set(int square) {
+        long bit = 1L << square;
+        switch (square >>> 6) {
+            case 0: w0 |= bit; break;
+            case 1: w1 |= bit; break;
+            case 2: w2 |= bit; break;
+            default: w3 |= bit; break;
+        }
+        return this;
+    }
+
+    /**
+     * Removes a square from the set.
+     * @param square The square index (0-195).
+     * @return This bitboard.
+     */
+    public Bitboard clear(int square) {
+        long mask = ~(1L << square);
+        switch (square >>> 6) {
+            case 0: w0 &= mask; break;
+            case 1: w1 &= mask; break;
+            case 2: w2 &= mask; break;
+            default: w3 &= mask; break;
+        }
+        return this;
+    }
+
+    /**
+     * Checks whether a square is in the set.
+     * @param square The square index (0-195).
+     * @return true if the square is set, false otherwise.
+     */
+    public boolean get(int square) {
+        return (word(square >>> 6) & (1L << square)) != 0;
+    }
+
+    /**
+     * Removes every square from the set.
+     * @return This bitboard.
+     */
+    public Bitboard clearAll() {
+        w0 = 0;
+        w1 = 0;
+        w2 = 0;
+        w3 = 0;
+        return this;
+    }
+
+    /**
+     * Replaces the contents of this bitboard with the contents of another.
+     * @param other The bitboard to copy.
+     * @return This bitboard.
+     */
+    public Bitboard copyFrom(Bitboard other) {
+        w0 = other.w0;
+        w1 = other.w1;
+        w2 = other.w2;
+        w3 = other.w3;
+        return this;
+    }
+
+    /**
+     * Adds every square of another bitboard to this one.
+     * @param other The bitboard to union with.
+     * @return This bitboard.
+     */
+    public Bitboard or(Bitboard other) {
+        w0 |= other.w0;
+        w1 |= other.w1;
+        w2 |= other.w2;
+        w3 |= other.w3;
+        return this;
+    }
+
+    /**
+     * Keeps only the squares that are also set in another bitboard.
+     * @param other The bitboard to intersect with.
+     * @return This bitboard.
+     */
+    public Bitboard and(Bitboard other) {
+        w0 &= other.w0;
+        w1 &= other.w1;
+        w2 &= other.w2;
+        w3 &= other.w3;
+        return this;
+    }
+
+    /**
+     * Removes every square that is set in another bitboard.
+     * @param other The bitboard whose squares are removed.
+     * @return This bitboard.
+     */
+    public Bitboard andNot(Bitboard other) {
+        w0 &= ~other.w0;
+        w1 &= ~other.w1;
+        w2 &= ~other.w2;
+        w3 &= ~other.w3;
+        return this;
+    }
+
+    /**
+     * Toggles every square that is set in another bitboard.
+     * @param other The bitboard whose squares are toggled.
+     * @return This bitboard.
+     */
+    public Bitboard xor(Bitboard other) {
+        w0 ^= other.w0;
+        w1 ^= other.w1;
+        w2 ^= other.w2;
+        w3 ^= other.w3;
+        return this;
+    }
+
+    /**
+     * Adds the squares of one bitboard that are not in another, in a single pass: {@code this |= a & ~b}.
+     * Slider lookups use this to add a ray minus the part of it that lies behind the first blocker.
+     * @param a The bitboard whose squares are added.
+     * @param b The bitboard whose squares are excluded from a.
+     * @return This bitboard.
+     */
+    public Bitboard orAndNot(Bitboard a, Bitboard b) {
+        w0 |= a.w0 & ~b.w0;
+        w1 |= a.w1 & ~b.w1;
+        w2 |= a.w2 & ~b.w2;
+        w3 |= a.w3 & ~b.w3;
+        return this;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     * @return true if no square is set, false otherwise.
+     */
+    public boolean isEmpty() {
+        return (w0 | w1 | w2 | w3) == 0;
+    }
+
+    /**
+     * Checks whether this bitboard shares at least one square with another.
+     * @param other The bitboard to test against.
+     * @return true if the two sets intersect, false otherwise.
+     */
+    public boolean intersects(Bitboard other) {
+        return ((w0 & other.w0) | (w1 & other.w1) | (w2 & other.w2) | (w3 & other.w3)) != 0;
+    }
+
+    /**
+     * Counts the squares in the set.
+     * @return The number of set squares.
+     */
+    public int cardinality() {
+        return Long.bitCount(w0) + Long.bitCount(w1) + Long.bitCount(w2) + Long.bitCount(w3);
+    }
+
+    /**
+     * Finds the lowest square in the set.
+     * @return The lowest set square, or -1 if the set is empty.
+     */
+    public int lowest() {
+        if (w0 != 0) return Long.numberOfTrailingZeros(w0);
+        if (w1 != 0) return 64 + Long.numberOfTrailingZeros(w1);
+        if (w2 != 0) return 128 + Long.numberOfTrailingZeros(w2);
+        if (w3 != 0) return 192 + Long.numberOfTrailingZeros(w3);
+        return -1;
+    }
+
+    /**
+     * Finds the highest square in the set.
+     * @return The highest set square, or -1 if the set is empty.
+     */
+    public int highest() {
+        if (w3 != 0) return 255 - Long.numberOfLeadingZeros(w3);
+        if (w2 != 0) return 191 - Long.numberOfLeadingZeros(w2);
+        if (w1 != 0) return 127 - Long.numberOfLeadingZeros(w1);
+        if (w0 != 0) return 63 - Long.numberOfLeadingZeros(w0);
+        return -1;
+    }
+
+    /**
+     * Finds the lowest square that is set in both this bitboard and another, without building the intersection.
+     * @param other The bitboard to intersect with.
+     * @return The lowest common square, or -1 if the sets do not intersect.
+     */
+    public int lowestCommon(Bitboard other) {
+        long word;
+        if ((word = w0 & other.w0) != 0) return Long.numberOfTrailingZeros(word);
+        if ((word = w1 & other.w1) != 0) return 64 + Long.numberOfTrailingZeros(word);
+        if ((word = w2 & other.w2) != 0) return 128 + Long.numberOfTrailingZeros(word);
+        if ((word = w3 & other.w3) != 0) return 192 + Long.numberOfTrailingZeros(word);
+        return -1;
+    }
+
+    /**
+     * Finds the highest square that is set in both this bitboard and another, without building the intersection.
+     * @param other The bitboard to intersect with.
+     * @return The highest common square, or -1 if the sets do not intersect.
+     */
+    public int highestCommon(Bitboard other) {
+        long word;
+        if ((word = w3 & other.w3) != 0) return 255 - Long.numberOfLeadingZeros(word);
+        if ((word = w2 & other.w2) != 0) return 191 - Long.numberOfLeadingZeros(word);
+        if ((word = w1 & other.w1) != 0) return 127 - Long.numberOfLeadingZeros(word);
+        if ((word = w0 & other.w0) != 0) return 63 - Long.numberOfLeadingZeros(word);
+        return -1;
+    }
+
+    /**
+     * Removes and returns the lowest square in the set.
+     * This is the usual way to iterate over a scratch bitboard: {@code while ((sq = bb.popLowest()) >= 0)}.
+     * @return The removed square, or -1 if the set is empty.
+     */
+    public int popLowest() {
+        if (w0 != 0) {
+            int square = Long.numberOfTrailingZeros(w0);
+            w0 &= w0 - 1;
+            return square;
+        }
+        if (w1 != 0) {
+            int square = 64 + Long.numberOfTrailingZeros(w1);
+            w1 &= w1 - 1;
+            return square;
+        }
+        if (w2 != 0) {
+            int square = 128 + Long.numberOfTrailingZeros(w2);
+            w2 &= w2 - 1;
+            return square;
+        }
+        if (w3 != 0) {
+            int square = 192 + Long.numberOfTrailingZeros(w3);
+            w3 &= w3 - 1;
+            return square;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the lowest set square at or above the given square without modifying the set.
+     * @param from The square to start searching from.
+     * @return The next set square, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int index = from >>> 6;
+        if (index > 3) {
+            return -1;
+        }
+        long word = word(index) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index > 3) {
+                return -1;
+            }
+            word = word(index);
+        }
+    }
+
+    private long word(int index) {
+        switch (index) {
+            case 0: return w0;
+            case 1: return w1;
+            case 2: return w2;
+            default: return w3;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bitboard)) {
+            return false;
+        }
+        Bitboard other = (Bitboard) o;
+        return w0 == other.w0 && w1 == other.w1 && w2 == other.w2 && w3 == other.w3;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(w0 ^ Long.rotateLeft(w1, 16) ^ Long.rotateLeft(w2, 32) ^ Long.rotateLeft(w3, 48));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < Position.SIZE; y++) {
+            for (int x = 0; x < Position.SIZE; x++) {
+                sb.append(get(Position.square(x, y)) ? 'x' : '.');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+
+/**
+ * The Evaluator class scores XXLChess positions for the search, in centipawns.
+ * Every piece is worth its material value plus a bonus for the square it stands on: leapers and the compound pieces
+ * are worth more near the centre, Pawns are worth more the closer they get to the middle row where they promote,
+ * and the King prefers to stay on its home rank. The material values follow the values the pieces carry in the game,
+ * so a Rook is 525 and a Chancellor 850.
+ * Because the score is a plain sum over the pieces, Position keeps it up to date with one addition per piece
+ * placed or removed, and evaluating a position during the search is a single read.
+ * @see Position#getPieceSquareScore()
+ */
+public final class Evaluator {
+    /**
+     * The score of being checkmated at the root; a mate found n plies from the root scores MATE - n.
+     */
+    public static final int MATE = 30000;
+    /**
+     * A score outside the range of every real score.
+     */
+    public static final int INFINITE = 32000;
+
+    private static final int[] VALUES = new int[Position.TYPES.length];
+    private static final int[][][] PIECE_SQUARE = new int[Position.COLORS.length][Position.TYPES.length][Position.SQUARES];
+
+    static {
+        VALUES[PieceType.PAWN.ordinal()] = 100;
+        VALUES[PieceType.KNIGHT.ordinal()] = 200;
+        VALUES[PieceType.CAMEL.ordinal()] = 200;
+        VALUES[PieceType.BISHOP.ordinal()] = 362;
+        VALUES[PieceType.GENERAL.ordinal()] = 500;
+        VALUES[PieceType.ROOK.ordinal()] = 525;
+        VALUES[PieceType.ARCHBISHOP.ordinal()] = 750;
+        VALUES[PieceType.CHANCELLOR.ordinal()] = 850;
+        VALUES[PieceType.QUEEN.ordinal()] = 950;
+        VALUES[PieceType.AMAZON.ordinal()] = 1200;
+        VALUES[PieceType.KING.ordinal()] = 0;
+
+        for (PieceColor color : Position.COLORS) {
+            for (PieceType type : Position.TYPES) {
+                for (int square = 0; square < Position.SQUARES; square++) {
+                    PIECE_SQUARE[color.ordinal()][type.ordinal()][square] = VALUES[type.ordinal()] + bonus(color, type, square);
+                }
+            }
+        }
+    }
+
+    private Evaluator() {
+    }
+
+    /**
+     * Works out the positional bonus of a piece on a square.
+     * @param color The color of the piece.
+     * @param type The type of the piece.
+     * @param square The square index.
+     * @return The bonus in centipawns.
+     */
+    private static int bonus(PieceColor color, PieceType type, int square) {
+        int x = Position.fileOf(square);
+        int y = Position.rankOf(square);
+        // Rings around the centre, from 0 on the edge to 6 on the four central squares.
+        int ring = Math.min(Math.min(x, Position.SIZE - 1 - x), Math.min(y, Position.SIZE - 1 - y));
+        int homeRank = color == PieceColor.WHITE ? Position.SIZE - 1 : 0;
+        int advance = Math.abs(y - homeRank);
+        switch (type) {
+            case PAWN:
+                return Math.max(0, advance - 1) * 8;
+            case KING:
+                return -advance * 10;
+            case KNIGHT:
+            case CAMEL:
+            case GENERAL:
+            case BISHOP:
+            case ARCHBISHOP:
+            case CHANCELLOR:
+                return ring * 4;
+            case QUEEN:
+            case AMAZON:
+                return ring * 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Retrieves the material value of a piece type.
+     * @param type The piece type.
+     * @return The value in centipawns; the King is worth 0 since it is never captured.
+     */
+    public static int value(PieceType type) {
+        return VALUES[type.ordinal()];
+    }
+
+    /**
+     * Retrieves the value of a piece on a square, material and positional bonus together.
+     * @param color The color of the piece.
+     * @param type The type of the piece.
+     * @param square The square index.
+     * @return The value in centipawns.
+     */
+    public static int pieceSquare(PieceColor color, PieceType type, int square) {
+        return PIECE_SQUARE[color.ordinal()][type.ordinal()][square];
+    }
+
+    static int pieceSquare(int color, int type, int square) {
+        return PIECE_SQUARE[color][type][square];
+    }
+
+    /**
+     * Scores a position from the point of view of the side to move.
+     * @param position The position to score.
+     * @return The score in centipawns; positive if the side to move is better.
+     */
+    public static int evaluate(Position position) {
+        int score = position.getPieceSquareScore();
+        return position.getSideToMove() == PieceColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,166 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+
+import java.io.IOException;
+
+/**
+ * The Game class is a game of XXLChess without a window: a Position together with the rules that decide which moves
+ * may be played and when the game is over. It does not depend on Processing, so whole games can be played by
+ * server and batch jobs, tests and benchmarks, with the AI on either side or both.
+ * Moves are packed ints played with makeMove on the Position, so a game can be taken back move by move,
+ * and nothing is allocated per move apart from the occasional growth of the Position's undo stack.
+ * The Board of the windowed game keeps its own Game and only adds Tiles, Piece sprites and animation on top of it.
+ * @see Position
+ * @see MoveGenerator
+ * @see AI
+ */
+public final class Game {
+    private final Position position;
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList replies = new MoveList();
+
+    /**
+     * Constructs a game on an empty board with white to move, to be filled through getPosition.
+     */
+    public Game() {
+        this(new Position());
+    }
+
+    /**
+     * Constructs a game that starts from a position.
+     * @param start The starting position; it is copied, not kept.
+     */
+    public Game(Position start) {
+        this.position = new Position(start);
+    }
+
+    /**
+     * Constructs a game from a layout file, the same format Board#setupBoard reads.
+     * @param layoutFilename The filename of the layout file.
+     * @return A game with white to move from the layout.
+     * @throws IOException If the file cannot be read.
+     * @see Position#fromLayout(String)
+     */
+    public static Game fromLayout(String layoutFilename) throws IOException {
+        return new Game(Position.fromLayout(layoutFilename));
+    }
+
+    /**
+     * Retrieves the position of the game. Changing it changes the game.
+     * @return The current position.
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Retrieves the color whose turn it is.
+     * @return The side to move.
+     */
+    public PieceColor getSideToMove() {
+        return position.getSideToMove();
+    }
+
+    /**
+     * Retrieves the number of moves played with play and not taken back.
+     * @return The number of plies played.
+     */
+    public int getPly() {
+        return position.getUndoDepth();
+    }
+
+    /**
+     * Appends the legal moves of the side to move to a caller-supplied list.
+     * @param moves The list the moves are appended to.
+     */
+    public void generateLegalMoves(MoveList moves) {
+        generator.generateLegal(position, position.getSideToMove(), moves);
+    }
+
+    /**
+     * Checks whether a move is legal for the side to move.
+     * @param move The packed move.
+     * @return true if the move is among the legal moves of the position.
+     */
+    public boolean isLegal(int move) {
+        replies.clear();
+        generateLegalMoves(replies);
+        return replies.contains(move);
+    }
+
+    /**
+     * Plays a move for the side to move.
+     * @param move The packed move, which must be legal.
+     * @throws IllegalArgumentException If the move is not legal in the current position.
+     */
+    public void play(int move) {
+        if (!isLegal(move)) {
+            throw new IllegalArgumentException("Illegal move " + Move.toString(move));
+        }
+        position.makeMove(move);
+    }
+
+    /**
+     * Takes back the last move played.
+     * @throws IllegalStateException If no move has been played.
+     */
+    public void undo() {
+        if (position.getUndoDepth() == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        position.unmakeMove();
+    }
+
+    /**
+     * Checks whether a color's King is in check.
+     * @param color The color of the King.
+     * @return true if the King is attacked, false otherwise or if the color has no King.
+     */
+    public boolean isInCheck(PieceColor color) {
+        return position.isInCheck(color);
+    }
+
+    /**
+     * Checks whether a color is checkmated: its King is in check and no move gets it out of check.
+     * Only the evasions are generated, so the test is cheap enough to run after every move.
+     * @param color The color to test.
+     * @return true if the color is checkmated, false otherwise or if the color has no King.
+     */
+    public boolean isCheckmate(PieceColor color) {
+        if (position.getKingSquare(color) < 0 || !position.isInCheck(color)) {
+            return false;
+        }
+        replies.clear();
+        generator.generateEvasions(position, color, replies);
+        return replies.isEmpty();
+    }
+
+    /**
+     * Checks whether the side to move is stalemated: it is not in check but has no legal move.
+     * @return true if the side to move is stalemated.
+     */
+    public boolean isStalemate() {
+        PieceColor side = position.getSideToMove();
+        if (position.isInCheck(side)) {
+            return false;
+        }
+        replies.clear();
+        generateLegalMoves(replies);
+        return replies.isEmpty();
+    }
+
+    /**
+     * Works out whether the current position is in check, checkmate or stalemate,
+     * with one legal move generation for the side to move.
+     * The result only describes the current position, so it is meant to be evaluated once per completed move
+     * and kept until the next one, rather than asked for again on every frame.
+     * @return The status of the current position.
+     */
+    public GameStatus evaluateStatus() {
+        replies.clear();
+        generateLegalMoves(replies);
+        return new GameStatus(position.getSideToMove(), position.isInCheck(PieceColor.WHITE),
+                position.isInCheck(PieceColor.BLACK), replies.size());
+    }
+}
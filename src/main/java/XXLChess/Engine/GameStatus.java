@@ -0,0 +1,99 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+
+/**
+ * The GameStatus class is a snapshot of whether a game is in check, checkmate or stalemate after a move.
+ * Working this out takes a full legal move generation, which is far too much to repeat on every frame
+ * while the same position stays on screen. A GameStatus is therefore evaluated once per completed move
+ * with Game#evaluateStatus and kept by its owner, and the renderer and the game-over checks read it for free.
+ * A GameStatus is immutable, and only describes the position it was evaluated on.
+ * @see Game#evaluateStatus()
+ */
+public final class GameStatus {
+    private final PieceColor sideToMove;
+    private final boolean whiteInCheck;
+    private final boolean blackInCheck;
+    private final int legalMoveCount;
+
+    /**
+     * Constructs a game status.
+     * @param sideToMove The color whose turn it is.
+     * @param whiteInCheck Whether the white King is in check.
+     * @param blackInCheck Whether the black King is in check.
+     * @param legalMoveCount The number of legal moves of the side to move.
+     */
+    public GameStatus(PieceColor sideToMove, boolean whiteInCheck, boolean blackInCheck, int legalMoveCount) {
+        this.sideToMove = sideToMove;
+        this.whiteInCheck = whiteInCheck;
+        this.blackInCheck = blackInCheck;
+        this.legalMoveCount = legalMoveCount;
+    }
+
+    /**
+     * Retrieves the color whose turn it is.
+     * @return The side to move.
+     */
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Checks whether a color's King is in check.
+     * @param color The color of the King.
+     * @return true if the King is attacked, false otherwise or if the color has no King.
+     */
+    public boolean isInCheck(PieceColor color) {
+        return color == PieceColor.WHITE ? whiteInCheck : blackInCheck;
+    }
+
+    /**
+     * Checks whether either King is in check.
+     * @return true if the white or the black King is attacked.
+     */
+    public boolean isAnyInCheck() {
+        return whiteInCheck || blackInCheck;
+    }
+
+    /**
+     * Retrieves the number of legal moves of the side to move.
+     * @return The number of legal moves.
+     */
+    public int getLegalMoveCount() {
+        return legalMoveCount;
+    }
+
+    /**
+     * Checks whether a color is checkmated: it is to move, in check and has no legal move.
+     * @param color The color to test.
+     * @return true if the color is checkmated.
+     */
+    public boolean isCheckmate(PieceColor color) {
+        return color == sideToMove && legalMoveCount == 0 && isInCheck(color);
+    }
+
+    /**
+     * Checks whether the side to move is stalemated: it is not in check but has no legal move.
+     * @return true if the side to move is stalemated.
+     */
+    public boolean isStalemate() {
+        return legalMoveCount == 0 && !isInCheck(sideToMove);
+    }
+
+    /**
+     * Checks whether the game is over by checkmate or stalemate.
+     * @return true if the side to move has no legal move.
+     */
+    public boolean isGameOver() {
+        return legalMoveCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        if (isGameOver()) {
+            return isStalemate() ? "stalemate" : "checkmate, " + sideToMove + " to move";
+        }
+        return sideToMove + " to move" + (isInCheck(sideToMove) ? ", in check" : "")
+                + ", " + legalMoveCount + " legal moves";
+    }
+}
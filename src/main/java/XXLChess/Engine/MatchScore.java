@@ -0,0 +1,202 @@
+package XXLChess.Engine;
+
+/**
+ * The MatchScore class is the result of a match between two engines, seen from the first of them, the candidate:
+ * its wins, draws and losses against the baseline, and the statistics drawn from them.
+ * The Elo difference follows from the score fraction with the logistic Elo model, and its error bars from the
+ * variance of the score of a single game, at 95% confidence.
+ * The sequential probability ratio test (SPRT) weighs the hypothesis that the candidate is elo0 stronger than the
+ * baseline against the hypothesis that it is elo1 stronger, using the normal approximation of the generalized SPRT:
+ * the log-likelihood ratio grows with every game that favours elo1 and shrinks with every game that favours elo0,
+ * and the match can stop as soon as it leaves the bounds set by the error rates alpha and beta.
+ * This lets a clear improvement or regression be settled after a few hundred games, while a change that makes
+ * little difference runs as long as it needs, instead of every change being given the same fixed number of games.
+ * A MatchScore is immutable.
+ * @see Tournament
+ */
+public final class MatchScore {
+    /**
+     * The SPRT decision that the candidate is not elo1 stronger: hypothesis elo0 is accepted.
+     */
+    public static final int ACCEPT_H0 = -1;
+    /**
+     * The SPRT decision that more games are needed.
+     */
+    public static final int CONTINUE = 0;
+    /**
+     * The SPRT decision that the candidate is elo1 stronger: hypothesis elo1 is accepted.
+     */
+    public static final int ACCEPT_H1 = 1;
+    private static final double Z_95 = 1.959964;
+
+    private final int wins;
+    private final int draws;
+    private final int losses;
+
+    /**
+     * Constructs a match score.
+     * @param wins The games the candidate won.
+     * @param draws The games drawn.
+     * @param losses The games the candidate lost.
+     */
+    public MatchScore(int wins, int draws, int losses) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * Retrieves the number of games the candidate won.
+     * @return The wins.
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Retrieves the number of games drawn.
+     * @return The draws.
+     */
+    public int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Retrieves the number of games the candidate lost.
+     * @return The losses.
+     */
+    public int getLosses() {
+        return losses;
+    }
+
+    /**
+     * Retrieves the number of games played.
+     * @return The sum of the wins, draws and losses.
+     */
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Retrieves the score of the candidate, counting a win as 1 and a draw as one half.
+     * @return The score as a fraction of the games, or 0.5 before the first game.
+     */
+    public double getScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    /**
+     * Retrieves the Elo difference between the candidate and the baseline that the score corresponds to.
+     * @return The Elo difference, positive if the candidate is stronger; infinite if it won or lost every game.
+     */
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    /**
+     * Retrieves the half-width of the 95% confidence interval of the Elo difference.
+     * @return The error of getElo in Elo points; infinite while the interval reaches a score of 0 or 1.
+     */
+    public double getEloError() {
+        int games = getGames();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = Z_95 * Math.sqrt(variance() / games);
+        double score = getScore();
+        return (elo(score + margin) - elo(score - margin)) / 2;
+    }
+
+    /**
+     * Computes the log-likelihood ratio of the SPRT of elo1 against elo0.
+     * @param elo0 The Elo difference of the null hypothesis, usually 0.
+     * @param elo1 The Elo difference of the alternative hypothesis, larger than elo0.
+     * @return The log-likelihood ratio, positive when the games favour elo1; 0 while the games have no variance.
+     */
+    public double getLogLikelihoodRatio(double elo0, double elo1) {
+        double variance = variance();
+        if (variance == 0) {
+            return 0;
+        }
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return getGames() * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * Decides the SPRT of elo1 against elo0.
+     * @param elo0 The Elo difference of the null hypothesis.
+     * @param elo1 The Elo difference of the alternative hypothesis.
+     * @param alpha The probability of accepting elo1 when elo0 is true.
+     * @param beta The probability of accepting elo0 when elo1 is true.
+     * @return ACCEPT_H1, ACCEPT_H0, or CONTINUE while the log-likelihood ratio is between the bounds.
+     */
+    public int sprt(double elo0, double elo1, double alpha, double beta) {
+        double llr = getLogLikelihoodRatio(elo0, elo1);
+        if (llr >= upperBound(alpha, beta)) {
+            return ACCEPT_H1;
+        }
+        if (llr <= lowerBound(alpha, beta)) {
+            return ACCEPT_H0;
+        }
+        return CONTINUE;
+    }
+
+    /**
+     * Computes the lower bound of the log-likelihood ratio, below which elo0 is accepted.
+     * @param alpha The probability of accepting elo1 when elo0 is true.
+     * @param beta The probability of accepting elo0 when elo1 is true.
+     * @return log(beta / (1 - alpha)).
+     */
+    public static double lowerBound(double alpha, double beta) {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    /**
+     * Computes the upper bound of the log-likelihood ratio, above which elo1 is accepted.
+     * @param alpha The probability of accepting elo1 when elo0 is true.
+     * @param beta The probability of accepting elo0 when elo1 is true.
+     * @return log((1 - beta) / alpha).
+     */
+    public static double upperBound(double alpha, double beta) {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Computes the expected score of a player that is a given number of Elo points stronger than its opponent.
+     * @param elo The Elo difference.
+     * @return The expected score, between 0 and 1.
+     */
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Computes the variance of the score of a single game.
+     */
+    private double variance() {
+        int games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        double score = getScore();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score) + losses * score * score) / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games %d  +%d =%d -%d  score %.1f%%  Elo %+.1f +/- %.1f",
+                getGames(), wins, draws, losses, 100 * getScore(), getElo(), getEloError());
+    }
+}
@@ -0,0 +1,127 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceType;
+
+/**
+ * The Move class packs a move into a single int so that move lists can be plain primitive arrays.
+ * The layout is:
+ * bits 0-7 hold the from-square, bits 8-15 the to-square,
+ * bits 16-19 the captured PieceType (its ordinal plus one, or zero for a quiet move),
+ * and bits 20-23 the flags CASTLING, PROMOTION and DOUBLE_STEP.
+ * A packed move is never zero, because the from- and to-squares of a real move differ, so zero is used as NONE.
+ */
+public final class Move {
+    /**
+     * The value used for "no move".
+     */
+    public static final int NONE = 0;
+    /**
+     * The King moves four squares towards a corner Rook, which jumps over it.
+     */
+    public static final int CASTLING = 1;
+    /**
+     * A Pawn crosses the middle row and becomes a Queen.
+     */
+    public static final int PROMOTION = 2;
+    /**
+     * A Pawn advances two squares on its first move.
+     */
+    public static final int DOUBLE_STEP = 4;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * Packs a move.
+     * @param from The square the piece moves from.
+     * @param to The square the piece moves to.
+     * @param captured The type of the captured piece, or null for a quiet move.
+     * @param flags A combination of CASTLING, PROMOTION and DOUBLE_STEP.
+     * @return The packed move.
+     */
+    public static int of(int from, int to, PieceType captured, int flags) {
+        int capturedCode = captured == null ? 0 : captured.ordinal() + 1;
+        return from | (to << 8) | (capturedCode << 16) | (flags << 20);
+    }
+
+    /**
+     * Retrieves the from-square of a packed move.
+     * @param move The packed move.
+     * @return The square the piece moves from.
+     */
+    public static int from(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * Retrieves the to-square of a packed move.
+     * @param move The packed move.
+     * @return The square the piece moves to.
+     */
+    public static int to(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    /**
+     * Retrieves the captured piece type of a packed move.
+     * @param move The packed move.
+     * @return The captured PieceType, or null if the move is not a capture.
+     */
+    public static PieceType captured(int move) {
+        int code = (move >>> 16) & 0xF;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    /**
+     * Checks whether a packed move captures a piece.
+     * @param move The packed move.
+     * @return true if the move is a capture, false otherwise.
+     */
+    public static boolean isCapture(int move) {
+        return (move & 0xF0000) != 0;
+    }
+
+    /**
+     * Retrieves the flags of a packed move.
+     * @param move The packed move.
+     * @return A combination of CASTLING, PROMOTION and DOUBLE_STEP.
+     */
+    public static int flags(int move) {
+        return (move >>> 20) & 0xF;
+    }
+
+    /**
+     * Checks whether a packed move is a castling move.
+     * @param move The packed move.
+     * @return true if the move castles, false otherwise.
+     */
+    public static boolean isCastling(int move) {
+        return (flags(move) & CASTLING) != 0;
+    }
+
+    /**
+     * Checks whether a packed move promotes a Pawn.
+     * @param move The packed move.
+     * @return true if the move promotes, false otherwise.
+     */
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    /**
+     * Describes a packed move with board coordinates, for logging and debugging.
+     * @param move The packed move.
+     * @return A string such as "(7,12)-(7,10)".
+     */
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "none";
+        }
+        int from = from(move);
+        int to = to(move);
+        return "(" + Position.fileOf(from) + "," + Position.rankOf(from) + ")-("
+                + Position.fileOf(to) + "," + Position.rankOf(to) + ")";
+    }
+}
@@ -0,0 +1,490 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+
+/**
+ * The MoveGenerator class produces packed moves for a Position into a caller-supplied MoveList.
+ * Moves are built from the precomputed Attacks tables and masked with the occupancy bitboards of the Position.
+ * A MoveGenerator keeps its own scratch bitboards, so each thread that generates moves needs its own instance,
+ * but no objects are allocated while generating.
+ * The generated moves follow the XXLChess rules: Pawns may step twice on their first move and become Queens
+ * once they cross the middle row, and an unmoved King castles by moving four squares towards an unmoved corner Rook.
+ * generate produces pseudo-legal moves, while generateLegal works out the checking pieces and the pinned pieces
+ * once per position and emits only legal moves, so no move has to be tried and tested afterwards.
+ */
+public class MoveGenerator {
+    private static final int SIZE = Position.SIZE;
+
+    private final Bitboard targets = new Bitboard();
+    private final Bitboard pieces = new Bitboard();
+    private final Bitboard opponents = new Bitboard();
+    private final Bitboard occupiedAfter = new Bitboard();
+    private final Bitboard checkers = new Bitboard();
+    private final Bitboard checkMask = new Bitboard();
+    private final Bitboard pinned = new Bitboard();
+    private final Bitboard evaders = new Bitboard();
+    private final Bitboard tacticalTargets = new Bitboard();
+    private final Bitboard pawnTacticalTargets = new Bitboard();
+    private boolean capturesOnly;
+    private final Bitboard[] pinMasks = new Bitboard[Position.SQUARES];
+    private int kingSquare;
+
+    private static final Bitboard[] PROMOTION_ZONES = {new Bitboard(), new Bitboard()};
+
+    static {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            for (PieceColor color : Position.COLORS) {
+                if (isPromotionSquare(color, square)) {
+                    PROMOTION_ZONES[color.ordinal()].set(square);
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructs a move generator with its own scratch bitboards.
+     */
+    public MoveGenerator() {
+        for (int square = 0; square < pinMasks.length; square++) {
+            pinMasks[square] = new Bitboard();
+        }
+    }
+
+    /**
+     * Computes the squares a piece attacks, which for every piece but the Pawn are also the squares it can move to.
+     * For a Pawn only the two diagonal capture squares are returned.
+     * @param type The type of the piece.
+     * @param color The color of the piece.
+     * @param square The square of the piece.
+     * @param occupied The occupied squares, used to stop the sliding pieces.
+     * @param out The bitboard that receives the result; its previous contents are discarded.
+     * @return The out bitboard.
+     */
+    public static Bitboard attacks(PieceType type, PieceColor color, int square, Bitboard occupied, Bitboard out) {
+        switch (type) {
+            case PAWN:
+                return out.copyFrom(Attacks.pawnAttacks(color, square));
+            case KNIGHT:
+                return out.copyFrom(Attacks.knightAttacks(square));
+            case CAMEL:
+                return out.copyFrom(Attacks.camelAttacks(square));
+            case KING:
+                return out.copyFrom(Attacks.kingAttacks(square));
+            case GENERAL:
+                return out.copyFrom(Attacks.generalAttacks(square));
+            case ROOK:
+                return Attacks.rookAttacks(square, occupied, out);
+            case BISHOP:
+                return Attacks.bishopAttacks(square, occupied, out);
+            case QUEEN:
+                return Attacks.queenAttacks(square, occupied, out);
+            case ARCHBISHOP:
+                return Attacks.bishopAttacks(square, occupied, out).or(Attacks.knightAttacks(square));
+            case CHANCELLOR:
+                return Attacks.rookAttacks(square, occupied, out).or(Attacks.knightAttacks(square));
+            case AMAZON:
+                return Attacks.queenAttacks(square, occupied, out).or(Attacks.knightAttacks(square));
+            default:
+                return out.clearAll();
+        }
+    }
+
+    /**
+     * Checks whether a Pawn of the given color landing on a square is promoted, that is, whether the square lies
+     * beyond the middle row from the Pawn's point of view.
+     * @param color The color of the Pawn.
+     * @param square The square the Pawn lands on.
+     * @return true if the Pawn becomes a Queen, false otherwise.
+     */
+    public static boolean isPromotionSquare(PieceColor color, int square) {
+        int rank = Position.rankOf(square);
+        return color == PieceColor.WHITE ? rank < SIZE / 2 : rank >= SIZE / 2;
+    }
+
+    /**
+     * Appends every pseudo-legal move of one color to a list.
+     * Pseudo-legal moves obey the movement rules of each piece but may leave the mover's own King in check.
+     * @param position The position to generate moves for.
+     * @param color The color whose moves are generated.
+     * @param moves The list the moves are appended to.
+     */
+    public void generate(Position position, PieceColor color, MoveList moves) {
+        pieces.copyFrom(position.getOccupancy(color));
+        int square;
+        while ((square = pieces.popLowest()) >= 0) {
+            generatePieceMoves(position, square, moves);
+        }
+    }
+
+    /**
+     * Appends the pseudo-legal moves of the piece on one square to a list.
+     * @param position The position to generate moves for.
+     * @param from The square of the piece; nothing is generated if it is empty.
+     * @param moves The list the moves are appended to.
+     */
+    public void generatePieceMoves(Position position, int from, MoveList moves) {
+        PieceType type = position.getType(from);
+        if (type == null) {
+            return;
+        }
+        PieceColor color = position.getColor(from);
+        if (type == PieceType.PAWN) {
+            addPawnMoves(position, from, color, pawnTargets(position, from, color, targets), moves);
+            return;
+        }
+        attacks(type, color, from, position.getOccupied(), targets).andNot(position.getOccupancy(color));
+        addMoves(position, from, targets, moves);
+        if (type == PieceType.KING) {
+            addCastling(position, from, color, false, moves);
+        }
+    }
+
+    /**
+     * Appends every legal move of one color to a list.
+     * The King's checkers and the pinned pieces are found once up front. A pinned piece may only move along its pin ray,
+     * every other move must capture the checker or block its ray while in check, only the King may move in double check,
+     * and King moves and castling are only emitted when every square the King lands on or passes through is safe.
+     * While the King is in check the work is handed to the evasion generator instead of generating every piece's moves.
+     * @param position The position to generate moves for.
+     * @param color The color whose moves are generated.
+     * @param moves The list the moves are appended to.
+     * @see #generateEvasions(Position, PieceColor, MoveList)
+     */
+    public void generateLegal(Position position, PieceColor color, MoveList moves) {
+        analyse(position, color);
+        if (kingSquare >= 0 && !checkers.isEmpty()) {
+            addEvasions(position, color, moves);
+            return;
+        }
+        pieces.copyFrom(position.getOccupancy(color));
+        int square;
+        while ((square = pieces.popLowest()) >= 0) {
+            addLegalPieceMoves(position, square, color, moves);
+        }
+    }
+
+    /**
+     * Appends the legal captures and Pawn promotions of one color, the moves a quiescence search looks at.
+     * Castling and quiet moves are left out. While the King is in check every evasion is generated instead,
+     * since a side in check has to answer the check whether or not it can capture.
+     * @param position The position to generate moves for.
+     * @param color The color whose moves are generated.
+     * @param moves The list the moves are appended to.
+     * @see #generateEvasions(Position, PieceColor, MoveList)
+     */
+    public void generateLegalCaptures(Position position, PieceColor color, MoveList moves) {
+        analyse(position, color);
+        if (kingSquare >= 0 && !checkers.isEmpty()) {
+            addEvasions(position, color, moves);
+            return;
+        }
+        tacticalTargets.copyFrom(position.getOccupancy(Position.opposite(color)));
+        pawnTacticalTargets.copyFrom(tacticalTargets).or(PROMOTION_ZONES[color.ordinal()]);
+        capturesOnly = true;
+        pieces.copyFrom(position.getOccupancy(color));
+        int square;
+        while ((square = pieces.popLowest()) >= 0) {
+            addLegalPieceMoves(position, square, color, moves);
+        }
+        capturesOnly = false;
+    }
+
+    /**
+     * Appends the moves that get a color's King out of check, or nothing if the King is not in check.
+     * Instead of generating every move and discarding the ones that leave the King attacked, the generator works
+     * backwards from the few squares that can resolve the check: the King's own safe squares, and for a single check
+     * the checker's square and the squares between it and the King. Pieces that reach those squares are found
+     * with a reverse attack probe, plus the Pawns that can push onto an empty blocking square.
+     * In double check only King moves are produced.
+     * @param position The position to generate moves for.
+     * @param color The color whose King is in check.
+     * @param moves The list the moves are appended to.
+     */
+    public void generateEvasions(Position position, PieceColor color, MoveList moves) {
+        analyse(position, color);
+        if (kingSquare >= 0 && !checkers.isEmpty()) {
+            addEvasions(position, color, moves);
+        }
+    }
+
+    private void addEvasions(Position position, PieceColor color, MoveList moves) {
+        addLegalKingMoves(position, color, moves);
+        if (checkers.cardinality() > 1) {
+            return;
+        }
+        // A pinned piece can never resolve a check: its pin ray and the check segment only meet at the King.
+        Bitboard own = position.getOccupancy(color);
+        int checker = checkers.lowest();
+        int step = Attacks.pawnDirection(color) * SIZE;
+        targets.copyFrom(checkMask);
+        int to;
+        while ((to = targets.popLowest()) >= 0) {
+            position.attackersTo(to, position.getOccupied(), evaders).and(own).andNot(pinned).clear(kingSquare);
+            if (to != checker) {
+                // Pawns only capture diagonally, so they reach an empty blocking square by pushing instead.
+                evaders.andNot(position.getPieces(PieceType.PAWN));
+                addPawnPushes(position, to, step, color, moves);
+            }
+            int from;
+            while ((from = evaders.popLowest()) >= 0) {
+                int flags = position.getType(from) == PieceType.PAWN && isPromotionSquare(color, to) ? Move.PROMOTION : 0;
+                moves.add(Move.of(from, to, position.getType(to), flags));
+            }
+        }
+    }
+
+    /**
+     * Appends the pushes of unpinned Pawns that land on an empty square, either by a single step or by a double step
+     * over an empty square from the Pawn's unmoved position.
+     */
+    private void addPawnPushes(Position position, int to, int step, PieceColor color, MoveList moves) {
+        int from = to - step;
+        if (from < 0 || from >= Position.SQUARES) {
+            return;
+        }
+        int flags = isPromotionSquare(color, to) ? Move.PROMOTION : 0;
+        if (isFreePawn(position, from, color)) {
+            moves.add(Move.of(from, to, null, flags));
+        } else if (position.isEmpty(from)) {
+            from -= step;
+            if (from >= 0 && from < Position.SQUARES && isFreePawn(position, from, color) && !position.hasMoved(from)) {
+                moves.add(Move.of(from, to, null, flags | Move.DOUBLE_STEP));
+            }
+        }
+    }
+
+    private boolean isFreePawn(Position position, int square, PieceColor color) {
+        return position.getType(square) == PieceType.PAWN && position.getColor(square) == color && !pinned.get(square);
+    }
+
+    /**
+     * Appends the legal moves of the piece on one square to a list.
+     * @param position The position to generate moves for.
+     * @param from The square of the piece; nothing is generated if it is empty.
+     * @param moves The list the moves are appended to.
+     * @see #generateLegal(Position, PieceColor, MoveList)
+     */
+    public void generateLegalPieceMoves(Position position, int from, MoveList moves) {
+        PieceColor color = position.getColor(from);
+        if (color == null) {
+            return;
+        }
+        analyse(position, color);
+        if (position.getType(from) != PieceType.KING && kingSquare >= 0 && checkers.cardinality() > 1) {
+            return;
+        }
+        addLegalPieceMoves(position, from, color, moves);
+    }
+
+    /**
+     * Finds the pieces giving check to a color's King and the pieces of that color pinned against it.
+     * For a single check, checkMask holds the checker and the squares between it and the King.
+     * For every pinned piece, its pin mask holds the squares between the King and the pinning slider, including the slider.
+     */
+    private void analyse(Position position, PieceColor color) {
+        checkers.clearAll();
+        pinned.clearAll();
+        kingSquare = position.getKingSquare(color);
+        if (kingSquare < 0) {
+            return;
+        }
+        PieceColor opponent = Position.opposite(color);
+        Bitboard occupied = position.getOccupied();
+        Bitboard own = position.getOccupancy(color);
+        Bitboard enemy = position.getOccupancy(opponent);
+
+        position.attackersTo(kingSquare, occupied, checkers).and(enemy);
+        if (checkers.cardinality() == 1) {
+            int checker = checkers.lowest();
+            Attacks.addSegment(kingSquare, checker, checkMask.clearAll().set(checker));
+        }
+
+        for (int direction = 0; direction < Attacks.DIRECTIONS; direction++) {
+            int blocker = Attacks.firstBlocker(direction, kingSquare, occupied);
+            if (blocker < 0 || !own.get(blocker)) {
+                continue;
+            }
+            int pinner = Attacks.firstBlocker(direction, blocker, occupied);
+            if (pinner >= 0 && enemy.get(pinner) && position.isSliderAlong(pinner, direction)) {
+                pinned.set(blocker);
+                pinMasks[blocker].clearAll().orAndNot(Attacks.ray(direction, kingSquare), Attacks.ray(direction, pinner));
+            }
+        }
+    }
+
+    private void addLegalPieceMoves(Position position, int from, PieceColor color, MoveList moves) {
+        PieceType type = position.getType(from);
+        if (type == PieceType.KING) {
+            addLegalKingMoves(position, color, moves);
+            return;
+        }
+        if (type == PieceType.PAWN) {
+            pawnTargets(position, from, color, targets);
+        } else {
+            attacks(type, color, from, position.getOccupied(), targets).andNot(position.getOccupancy(color));
+        }
+        if (!checkers.isEmpty()) {
+            targets.and(checkMask);
+        }
+        if (pinned.get(from)) {
+            targets.and(pinMasks[from]);
+        }
+        if (capturesOnly) {
+            targets.and(type == PieceType.PAWN ? pawnTacticalTargets : tacticalTargets);
+        }
+        if (type == PieceType.PAWN) {
+            addPawnMoves(position, from, color, targets, moves);
+        } else {
+            addMoves(position, from, targets, moves);
+        }
+    }
+
+    private void addLegalKingMoves(Position position, PieceColor color, MoveList moves) {
+        if (kingSquare < 0) {
+            return;
+        }
+        PieceColor opponent = Position.opposite(color);
+        occupiedAfter.copyFrom(position.getOccupied()).clear(kingSquare);
+        targets.copyFrom(Attacks.kingAttacks(kingSquare)).andNot(position.getOccupancy(color));
+        if (capturesOnly) {
+            targets.and(tacticalTargets);
+        }
+        int to;
+        while ((to = targets.popLowest()) >= 0) {
+            opponents.copyFrom(position.getOccupancy(opponent)).clear(to);
+            if (!position.isSquareAttacked(to, opponent, opponents, occupiedAfter)) {
+                moves.add(Move.of(kingSquare, to, position.getType(to), 0));
+            }
+        }
+        if (checkers.isEmpty() && !capturesOnly) {
+            addCastling(position, kingSquare, color, true, moves);
+        }
+    }
+
+    /**
+     * Removes from a list every move that would leave the mover's own King in check.
+     * The order of the remaining moves is not preserved.
+     * @param position The position the moves were generated for.
+     * @param moves The list to filter in place.
+     */
+    public void filterLegal(Position position, MoveList moves) {
+        for (int i = moves.size() - 1; i >= 0; i--) {
+            if (!isLegal(position, moves.get(i))) {
+                moves.removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a pseudo-legal move leaves the mover's own King safe.
+     * The move is not played: the occupancy after the move is built in a scratch bitboard,
+     * the captured piece is dropped from the attackers, and the King's square is probed with Position#isSquareAttacked.
+     * A castling move must also not start in check or pass through an attacked square,
+     * the same squares generateLegal checks before it emits castling.
+     * @param position The position the move was generated for.
+     * @param move The packed move.
+     * @return true if the mover's King is not attacked after the move, or the mover has no King, false otherwise.
+     */
+    public boolean isLegal(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        PieceColor color = position.getColor(from);
+        PieceColor opponent = Position.opposite(color);
+        int kingSquare = position.getType(from) == PieceType.KING ? to : position.getKingSquare(color);
+        if (kingSquare < 0) {
+            return true;
+        }
+        occupiedAfter.copyFrom(position.getOccupied()).clear(from).set(to);
+        if (Move.isCastling(move)) {
+            int direction = to > from ? 1 : -1;
+            for (int square = from; square != to; square += direction) {
+                if (position.isSquareAttacked(square, opponent)) {
+                    return false;
+                }
+            }
+            occupiedAfter.clear(castlingRookFrom(from, direction)).set(to - direction);
+        }
+        opponents.copyFrom(position.getOccupancy(opponent)).clear(to);
+        return !position.isSquareAttacked(kingSquare, opponent, opponents, occupiedAfter);
+    }
+
+    /**
+     * Finds the corner square of the Rook that castles with a King.
+     * @param kingSquare The square of the King before castling.
+     * @param direction 1 when castling towards x = 13 and -1 when castling towards x = 0.
+     * @return The square of the castling Rook.
+     */
+    public static int castlingRookFrom(int kingSquare, int direction) {
+        return Position.square(direction > 0 ? SIZE - 1 : 0, Position.rankOf(kingSquare));
+    }
+
+    private void addMoves(Position position, int from, Bitboard destinations, MoveList moves) {
+        int to;
+        while ((to = destinations.popLowest()) >= 0) {
+            moves.add(Move.of(from, to, position.getType(to), 0));
+        }
+    }
+
+    /**
+     * Collects the squares a Pawn can move to: one step forward, two steps on its first move, and diagonal captures.
+     */
+    private static Bitboard pawnTargets(Position position, int from, PieceColor color, Bitboard out) {
+        out.copyFrom(Attacks.pawnAttacks(color, from)).and(position.getOccupancy(Position.opposite(color)));
+        int step = Attacks.pawnDirection(color) * SIZE;
+        int oneStep = from + step;
+        if (oneStep >= 0 && oneStep < Position.SQUARES && position.isEmpty(oneStep)) {
+            out.set(oneStep);
+            int twoSteps = oneStep + step;
+            if (!position.hasMoved(from) && twoSteps >= 0 && twoSteps < Position.SQUARES && position.isEmpty(twoSteps)) {
+                out.set(twoSteps);
+            }
+        }
+        return out;
+    }
+
+    private static void addPawnMoves(Position position, int from, PieceColor color, Bitboard destinations, MoveList moves) {
+        int to;
+        while ((to = destinations.popLowest()) >= 0) {
+            int flags = isPromotionSquare(color, to) ? Move.PROMOTION : 0;
+            if (Math.abs(to - from) == 2 * SIZE) {
+                flags |= Move.DOUBLE_STEP;
+            }
+            moves.add(Move.of(from, to, position.getType(to), flags));
+        }
+    }
+
+    /**
+     * Appends the castling moves of an unmoved King. With checkSafety set, the King must not pass through
+     * or land on an attacked square; the caller is responsible for not castling out of check.
+     */
+    private static void addCastling(Position position, int from, PieceColor color, boolean checkSafety, MoveList moves) {
+        if (position.hasMoved(from)) {
+            return;
+        }
+        for (int direction = -1; direction <= 1; direction += 2) {
+            int rookSquare = castlingRookFrom(from, direction);
+            int distance = Math.abs(Position.fileOf(rookSquare) - Position.fileOf(from));
+            if (distance < 5 || position.getType(rookSquare) != PieceType.ROOK
+                    || position.getColor(rookSquare) != color || position.hasMoved(rookSquare)) {
+                continue;
+            }
+            boolean pathClear = true;
+            for (int square = from + direction; square != rookSquare; square += direction) {
+                if (!position.isEmpty(square)) {
+                    pathClear = false;
+                    break;
+                }
+            }
+            if (pathClear && checkSafety) {
+                PieceColor opponent = Position.opposite(color);
+                for (int step = 1; step <= 4 && pathClear; step++) {
+                    pathClear = !position.isSquareAttacked(from + step * direction, opponent);
+                }
+            }
+            if (pathClear) {
+                moves.add(Move.of(from, from + 4 * direction, null, Move.CASTLING));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package XXLChess.Engine;
+
+import java.util.Arrays;
+
+/**
+ * The MoveList class is a reusable list of packed moves backed by a primitive int array.
+ * Move generators append to a MoveList supplied by the caller, so a search can keep one list per ply
+ * and generate moves without allocating anything.
+ * @see Move
+ */
+public final class MoveList {
+    /**
+     * The default capacity, comfortably above the number of moves in any reachable XXLChess position.
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private int[] moves;
+    private int size;
+
+    /**
+     * Constructs an empty move list with the default capacity.
+     */
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty move list.
+     * @param capacity The initial capacity.
+     */
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Appends a move. The list grows if it is full, which should not happen with the default capacity.
+     * @param move The packed move.
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Retrieves a move.
+     * @param index The index of the move.
+     * @return The packed move.
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces a move.
+     * @param index The index of the move.
+     * @param move The new packed move.
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Swaps two moves.
+     * @param i The index of the first move.
+     * @param j The index of the second move.
+     */
+    public void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    /**
+     * Removes a move by moving the last move into its place. The order of the list is not preserved.
+     * @param index The index of the move to remove.
+     */
+    public void removeAt(int index) {
+        moves[index] = moves[--size];
+    }
+
+    /**
+     * Retrieves the number of moves in the list.
+     * @return The size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the list is empty.
+     * @return true if the list holds no moves, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every move, keeping the backing array for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Checks whether the list holds a move.
+     * @param move The packed move.
+     * @return true if the move is in the list, false otherwise.
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the move with the given from- and to-squares, ignoring the captured type and flags.
+     * @param from The square the piece moves from.
+     * @param to The square the piece moves to.
+     * @return The packed move, or Move.NONE if the list has no such move.
+     */
+    public int find(int from, int to) {
+        for (int i = 0; i < size; i++) {
+            if (Move.from(moves[i]) == from && Move.to(moves[i]) == to) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,175 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceType;
+
+/**
+ * The MovePicker class hands out the moves of a search node one at a time, best candidates first, in stages:
+ * the transposition table move, then captures and promotions by most valuable victim and least valuable attacker
+ * (MVV-LVA), then the two killer moves of the ply, then the remaining quiet moves by their history score.
+ * Ordering is lazy: a stage is only scored when the search reaches it, and within a stage each call picks the best
+ * of the remaining moves with one pass of a selection sort, so a node that cuts off after its first few moves
+ * never pays for sorting the rest.
+ * The picker reorders the MoveList it is given in place and keeps its scores in its own array,
+ * so the search keeps one picker per ply and nothing is allocated.
+ * @see Search
+ */
+final class MovePicker {
+    private static final int STAGE_TABLE_MOVE = 0;
+    private static final int STAGE_SCORE_CAPTURES = 1;
+    private static final int STAGE_CAPTURES = 2;
+    private static final int STAGE_FIRST_KILLER = 3;
+    private static final int STAGE_SECOND_KILLER = 4;
+    private static final int STAGE_SCORE_QUIETS = 5;
+    private static final int STAGE_QUIETS = 6;
+    private static final int STAGE_DONE = 7;
+
+    private static final int PROMOTION_GAIN = Evaluator.value(PieceType.QUEEN) - Evaluator.value(PieceType.PAWN);
+
+    private int[] scores = new int[MoveList.DEFAULT_CAPACITY];
+    private Position position;
+    private MoveList moves;
+    private int[][] history;
+    private int tableMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int stage;
+    private int cursor;
+    private int capturesEnd;
+
+    /**
+     * Prepares the picker for a node.
+     * @param position The position of the node, used to look up the moving pieces.
+     * @param moves The legal moves of the node; the list is reordered as moves are picked.
+     * @param tableMove The best move stored in the transposition table, or Move.NONE.
+     * @param firstKiller The most recent quiet move that caused a cut-off at this ply, or Move.NONE.
+     * @param secondKiller The killer before it, or Move.NONE.
+     * @param history The history scores indexed by piece type ordinal and destination square.
+     */
+    void init(Position position, MoveList moves, int tableMove, int firstKiller, int secondKiller, int[][] history) {
+        this.position = position;
+        this.moves = moves;
+        this.tableMove = tableMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.history = history;
+        this.stage = STAGE_TABLE_MOVE;
+        this.cursor = 0;
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+    }
+
+    /**
+     * Picks the next move.
+     * @return The next packed move, or Move.NONE once every move has been handed out.
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_TABLE_MOVE:
+                    stage = STAGE_SCORE_CAPTURES;
+                    if (tableMove != Move.NONE && take(tableMove)) {
+                        return tableMove;
+                    }
+                    break;
+                case STAGE_SCORE_CAPTURES:
+                    scoreCaptures();
+                    stage = STAGE_CAPTURES;
+                    break;
+                case STAGE_CAPTURES:
+                    if (cursor < capturesEnd) {
+                        return pickBest(capturesEnd);
+                    }
+                    stage = STAGE_FIRST_KILLER;
+                    break;
+                case STAGE_FIRST_KILLER:
+                    stage = STAGE_SECOND_KILLER;
+                    if (firstKiller != Move.NONE && firstKiller != tableMove && take(firstKiller)) {
+                        return firstKiller;
+                    }
+                    break;
+                case STAGE_SECOND_KILLER:
+                    stage = STAGE_SCORE_QUIETS;
+                    if (secondKiller != Move.NONE && secondKiller != tableMove && secondKiller != firstKiller
+                            && take(secondKiller)) {
+                        return secondKiller;
+                    }
+                    break;
+                case STAGE_SCORE_QUIETS:
+                    for (int i = cursor; i < moves.size(); i++) {
+                        int move = moves.get(i);
+                        scores[i] = history[position.getType(Move.from(move)).ordinal()][Move.to(move)];
+                    }
+                    stage = STAGE_QUIETS;
+                    break;
+                case STAGE_QUIETS:
+                    if (cursor < moves.size()) {
+                        return pickBest(moves.size());
+                    }
+                    stage = STAGE_DONE;
+                    break;
+                default:
+                    return Move.NONE;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a move is a capture or a promotion, which the picker hands out before the quiet moves.
+     * @param move The packed move.
+     * @return true if the move changes the material balance by itself.
+     */
+    static boolean isTactical(int move) {
+        return Move.isCapture(move) || Move.isPromotion(move);
+    }
+
+    /**
+     * Moves the captures and promotions among the remaining moves to the front and scores them by MVV-LVA.
+     */
+    private void scoreCaptures() {
+        capturesEnd = cursor;
+        for (int i = cursor; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isTactical(move)) {
+                moves.swap(capturesEnd, i);
+                PieceType victim = Move.captured(move);
+                int gain = (victim == null ? 0 : Evaluator.value(victim)) + (Move.isPromotion(move) ? PROMOTION_GAIN : 0);
+                PieceType attacker = position.getType(Move.from(move));
+                scores[capturesEnd++] = gain * 16 - Evaluator.value(attacker);
+            }
+        }
+    }
+
+    /**
+     * Hands out a specific move if it is among the remaining moves.
+     * @param move The packed move.
+     * @return true if the move was found and handed out, false otherwise.
+     */
+    private boolean take(int move) {
+        for (int i = cursor; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                moves.swap(cursor, i);
+                cursor++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hands out the highest-scored move between the cursor and the end of the current stage, one step of a selection sort.
+     */
+    private int pickBest(int end) {
+        int best = cursor;
+        for (int i = cursor + 1; i < end; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        moves.swap(cursor, best);
+        int score = scores[cursor];
+        scores[cursor] = scores[best];
+        scores[best] = score;
+        return moves.get(cursor++);
+    }
+}
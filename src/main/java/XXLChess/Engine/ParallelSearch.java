@@ -0,0 +1,176 @@
+package XXLChess.Engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The ParallelSearch class runs a Lazy SMP search: one main Search on the calling thread and a number of helper
+ * Searches on their own threads, all searching the same position and sharing one TranspositionTable.
+ * The threads do not divide the work explicitly; each one searches the whole tree on its own Position copy,
+ * and they help each other through the results they leave in the shared table. Odd helpers start their iterative
+ * deepening one ply deeper than the main thread, so the threads drift apart and fill the table with different subtrees.
+ * The main thread decides when the search ends and which move is played: only it follows the time and node limits,
+ * and the helpers are stopped as soon as it is done.
+ * With one thread this is exactly a single Search.
+ * @see Search
+ */
+public final class ParallelSearch {
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+    private final Future<?>[] futures;
+    private final Position root = new Position();
+    private Consumer<SearchInfo> listener;
+    private long startTime;
+
+    /**
+     * Constructs a parallel search.
+     * @param table The transposition table shared by all threads.
+     * @param threads The total number of search threads, including the calling thread; at least 1.
+     */
+    public ParallelSearch(TranspositionTable table, int threads) {
+        this.table = table;
+        int count = Math.max(1, threads);
+        this.searches = new Search[count];
+        for (int i = 0; i < count; i++) {
+            searches[i] = new Search(table);
+            searches[i].setDepthOffset(i % 2);
+        }
+        this.futures = new Future<?>[count];
+        this.helpers = count == 1 ? null : Executors.newFixedThreadPool(count - 1, task -> {
+            Thread thread = new Thread(task, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        searches[0].setListener(this::report);
+    }
+
+    /**
+     * Sets the listener that receives a SearchInfo after every iteration the main thread completes.
+     * The node counts in the reports are the totals of all threads.
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(Consumer<SearchInfo> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Retrieves the number of search threads.
+     * @return The thread count, including the calling thread.
+     */
+    public int getThreads() {
+        return searches.length;
+    }
+
+    /**
+     * Searches a position with all threads for a fixed time and depth.
+     * @param position The position to search.
+     * @param maxDepth The deepest iteration to search.
+     * @param maxMillis The time the search may take, in milliseconds.
+     * @return The best move found, or Move.NONE if the side to move has no legal move.
+     * @see #search(Position, TimeManager)
+     */
+    public int search(Position position, int maxDepth, long maxMillis) {
+        return search(position, new TimeManager(maxMillis, maxMillis, TimeManager.UNLIMITED, maxDepth));
+    }
+
+    /**
+     * Searches a position with all threads and returns the main thread's best move.
+     * The position is copied first, so it may be changed by the caller while the search runs.
+     * @param position The position to search.
+     * @param limits The limits of the main thread; the helpers are only limited in depth.
+     * @return The best move found, or Move.NONE if the side to move has no legal move.
+     * @see #search(Position, TimeManager, AtomicBoolean)
+     */
+    public int search(Position position, TimeManager limits) {
+        return search(position, limits, Search.NO_STOP_REQUEST);
+    }
+
+    /**
+     * Searches a position with all threads and returns the main thread's best move,
+     * stopping early once a stop request is set.
+     * stop only reaches a search that is already running, since every search clears the stop flags when it starts.
+     * A caller that hands the search to another thread and may need to stop it before that thread has picked it up
+     * sets a request of its own instead, which all threads poll together with the clock.
+     * @param position The position to search.
+     * @param limits The limits of the main thread; the helpers are only limited in depth.
+     * @param stopRequest The request this search stops on, which may be set from any thread, before or during the search.
+     * @return The best move found, or Move.NONE if the side to move has no legal move.
+     */
+    public int search(Position position, TimeManager limits, AtomicBoolean stopRequest) {
+        root.copyFrom(position);
+        table.newSearch();
+        startTime = System.nanoTime();
+        for (Search search : searches) {
+            search.resetStop();
+        }
+        TimeManager helperLimits = TimeManager.fixedDepth(limits.getMaxDepth());
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            futures[i] = helpers.submit(() -> helper.run(root, helperLimits, stopRequest));
+        }
+        int bestMove = searches[0].run(root, limits, stopRequest);
+        stop();
+        for (int i = 1; i < searches.length; i++) {
+            try {
+                futures[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Asks every thread to stop as soon as possible. It may be called from any thread.
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Retrieves the number of nodes searched by all threads in the current or last search.
+     * While a search is running the count is approximate, since the threads update their counts without synchronisation.
+     * @return The total node count.
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (Search search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * Retrieves the score of the main thread's best move in the current or last search.
+     * @return The score from the point of view of the side to move.
+     */
+    public int getBestScore() {
+        return searches[0].getBestScore();
+    }
+
+    /**
+     * Stops the helper threads for good. The search must not be used afterwards.
+     */
+    public void shutdown() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    private void report(SearchInfo info) {
+        if (listener != null) {
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000L;
+            listener.accept(new SearchInfo(info.getDepth(), info.getScore(), info.getBestMove(), getNodes(), elapsedMillis));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package XXLChess.Engine;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The Perft class counts the leaf nodes of the legal move tree of a position to a fixed depth (performance test).
+ * The counts are a fingerprint of the move generator: any change to the rules or to the generator that changes
+ * which moves are legal changes them, and the time they take measures the throughput of generating, making
+ * and taking back moves. The last ply is counted in bulk, by the size of the legal move list, without playing it.
+ * Divide breaks the count down by root move, which narrows a wrong count down to the move that causes it.
+ * In parallel mode the root moves are counted as separate tasks of a fork-join pool, each on its own Position copy.
+ * An optional cache keeps the counts of subtrees by Zobrist key and depth, so subtrees reached again by another
+ * move order are counted once. Like the TranspositionTable, each cache entry stores the key XORed with the count
+ * next to the count, so a torn entry reads as a miss and the cache is shared by all tasks without locks.
+ * Usage: {@code Perft <layout file> <depth> [threads] [hash megabytes] [divide]},
+ * with one thread and no cache by default.
+ * @see MoveGenerator#generateLegal(Position, XXLChess.PieceColor, MoveList)
+ */
+public final class Perft {
+    private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;
+    private static final int ENTRY_BYTES = 16;
+
+    private final AtomicLongArray cache;
+    private final int mask;
+
+    /**
+     * Constructs a perft counter.
+     * @param hashMegabytes The size of the subtree cache in megabytes, rounded down to a power of two entries,
+     *                      or 0 to count without a cache.
+     */
+    public Perft(int hashMegabytes) {
+        if (hashMegabytes <= 0) {
+            this.cache = null;
+            this.mask = 0;
+        } else {
+            long entries = Long.highestOneBit(Math.max(1, (long) hashMegabytes * 1024 * 1024 / ENTRY_BYTES));
+            int capacity = (int) Math.min(entries, 1 << 29);
+            this.cache = new AtomicLongArray(capacity * 2);
+            this.mask = capacity - 1;
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of a position.
+     * @param position The position; it is copied, not changed.
+     * @param depth The depth to count to.
+     * @param pool The pool the root moves are counted in, or null to count on the calling thread.
+     * @return The number of leaf nodes.
+     */
+    public long count(Position position, int depth, ForkJoinPool pool) {
+        if (depth <= 0) {
+            return 1;
+        }
+        MoveList rootMoves = new MoveList();
+        long nodes = 0;
+        for (long count : divide(position, depth, pool, rootMoves)) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below every legal root move of a position.
+     * @param position The position; it is copied, not changed.
+     * @param depth The depth to count to, including the root move; at least 1.
+     * @param pool The pool the root moves are counted in, or null to count on the calling thread.
+     * @param rootMoves The list the legal root moves are appended to, in the order of the counts.
+     * @return The number of leaf nodes below each root move.
+     */
+    public long[] divide(Position position, int depth, ForkJoinPool pool, MoveList rootMoves) {
+        Position root = new Position(position);
+        int first = rootMoves.size();
+        new MoveGenerator().generateLegal(root, root.getSideToMove(), rootMoves);
+        long[] counts = new long[rootMoves.size() - first];
+        if (pool == null) {
+            Counter counter = new Counter(depth);
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = counter.countAfter(root, rootMoves.get(first + i), depth - 1);
+            }
+            return counts;
+        }
+        RootTask[] tasks = new RootTask[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            tasks[i] = new RootTask(root, rootMoves.get(first + i), depth - 1);
+            pool.execute(tasks[i]);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tasks[i].join();
+        }
+        return counts;
+    }
+
+    /**
+     * Runs perft from the command line and prints the leaf count, the time and the nodes per second,
+     * preceded by the count of every root move when divide is given. Divide needs a depth of at least 1.
+     * @param args The layout file, the depth, and optionally the thread count, the cache size in megabytes and divide.
+     * @throws IOException If the layout file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: Perft <layout file> <depth> [threads] [hash megabytes] [divide]");
+            return;
+        }
+        int depth = Integer.parseInt(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int hashMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        boolean divide = args.length > 4 && args[4].equals("divide");
+        if (divide && depth < 1) {
+            System.out.println("Usage: Perft <layout file> <depth> [threads] [hash megabytes] [divide]");
+            System.out.println("divide needs a depth of at least 1");
+            return;
+        }
+        Position position = Position.fromLayout(args[0]);
+
+        Perft perft = new Perft(hashMegabytes);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            MoveList rootMoves = new MoveList();
+            long[] counts = perft.divide(position, depth, pool, rootMoves);
+            nodes = 0;
+            for (int i = 0; i < counts.length; i++) {
+                System.out.println(Move.toString(rootMoves.get(i)) + ": " + counts[i]);
+                nodes += counts[i];
+            }
+            System.out.println("moves " + counts.length);
+        } else {
+            nodes = perft.count(position, depth, pool);
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        System.out.printf("depth %d  nodes %d  time %d ms  nps %d  (%d threads, %d MB hash)%n",
+                depth, nodes, elapsedMillis, nodes * 1000 / elapsedMillis, threads, hashMegabytes);
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts subtrees on one thread, with a move list per ply so that nothing is allocated while counting.
+     */
+    private final class Counter {
+        private final MoveGenerator generator = new MoveGenerator();
+        private final MoveList[] moveLists;
+
+        Counter(int depth) {
+            moveLists = new MoveList[Math.max(1, depth)];
+            for (int ply = 0; ply < moveLists.length; ply++) {
+                moveLists[ply] = new MoveList();
+            }
+        }
+
+        long countAfter(Position position, int move, int depth) {
+            position.makeMove(move);
+            long nodes = count(position, depth, 0);
+            position.unmakeMove();
+            return nodes;
+        }
+
+        private long count(Position position, int depth, int ply) {
+            if (depth == 0) {
+                return 1;
+            }
+            long key = position.getKey() ^ depth * DEPTH_MIX;
+            int index = (int) key & mask;
+            if (cache != null && depth > 1) {
+                long count = cache.get(2 * index + 1);
+                if ((cache.get(2 * index) ^ count) == key) {
+                    return count;
+                }
+            }
+            MoveList moves = moveLists[ply];
+            moves.clear();
+            generator.generateLegal(position, position.getSideToMove(), moves);
+            if (depth == 1) {
+                return moves.size();
+            }
+            long nodes = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                position.makeMove(moves.get(i));
+                nodes += count(position, depth - 1, ply + 1);
+                position.unmakeMove();
+            }
+            if (cache != null) {
+                cache.set(2 * index, key ^ nodes);
+                cache.set(2 * index + 1, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Counts the subtree below one root move on its own Position copy.
+     */
+    private final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Position root;
+        private final int move;
+        private final int depth;
+
+        RootTask(Position root, int move, int depth) {
+            this.root = root;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return new Counter(depth).countAfter(new Position(root), move, depth);
+        }
+    }
+}
@@ -0,0 +1,696 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * The Position class is the bitboard representation of an XXLChess position.
+ * It stores the 196 squares of the 14x14 board as one occupancy set per PieceColor and one per PieceType,
+ * together with a square-indexed mailbox so the type and color on a given square can be read in constant time.
+ * It also keeps a piece list per color and type, the squares of those pieces in no particular order, so that the
+ * pieces of one kind can be walked by index without scanning the board or allocating, and a King's square is
+ * read straight from the front of its list.
+ * Squares are numbered {@code y * 14 + x}, with (0, 0) in the top-left corner as on the screen.
+ * Moves are played with makeMove and taken back with unmakeMove, which restore captured pieces, moved flags,
+ * castling Rooks and promotions from a preallocated undo stack, so a search can walk the game tree without allocating.
+ * Every change also updates a 64-bit Zobrist key with one XOR per piece placed or removed, so the key identifies
+ * the position, including the side to move and which pieces have not moved yet, without ever rehashing the board.
+ * The Evaluator's material and piece-square score is kept up to date in the same way.
+ * The Position has no dependency on Processing; the Board keeps it in sync and uses its Tiles only for rendering.
+ */
+public class Position {
+    /**
+     * The number of files and ranks on the board.
+     */
+    public static final int SIZE = 14;
+    /**
+     * The number of squares on the board.
+     */
+    public static final int SQUARES = SIZE * SIZE;
+
+    static final PieceType[] TYPES = PieceType.values();
+    static final PieceColor[] COLORS = PieceColor.values();
+    private static final byte EMPTY = -1;
+    private static final int INITIAL_UNDO_CAPACITY = 1024;
+    private static final int MOVER_UNMOVED = 1;
+    private static final int CAPTURED_UNMOVED = 2;
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final Bitboard[] colorOccupancy = new Bitboard[COLORS.length];
+    private final Bitboard[] typeOccupancy = new Bitboard[TYPES.length];
+    private final Bitboard occupied = new Bitboard();
+    private final Bitboard unmoved = new Bitboard();
+    private final byte[] types = new byte[SQUARES];
+    private final byte[] colors = new byte[SQUARES];
+    private final int[] listSquares = new int[COLORS.length * TYPES.length * SQUARES];
+    private final int[] listSizes = new int[COLORS.length * TYPES.length];
+    private final int[] listIndex = new int[SQUARES];
+    private PieceColor sideToMove = PieceColor.WHITE;
+    private long key;
+    private int pieceSquareScore;
+    private int[] undoMoves = new int[INITIAL_UNDO_CAPACITY];
+    private int[] undoFlags = new int[INITIAL_UNDO_CAPACITY];
+    private int undoSize;
+    private final Bitboard candidates = new Bitboard();
+    private final Bitboard rays = new Bitboard();
+
+    /**
+     * Constructs an empty position with white to move.
+     */
+    public Position() {
+        for (int i = 0; i < colorOccupancy.length; i++) {
+            colorOccupancy[i] = new Bitboard();
+        }
+        for (int i = 0; i < typeOccupancy.length; i++) {
+            typeOccupancy[i] = new Bitboard();
+        }
+        Arrays.fill(types, EMPTY);
+    }
+
+    /**
+     * Constructs a copy of another position, so that a search can work on its own position
+     * while the original stays with the game. The undo stack is not copied.
+     * @param other The position to copy.
+     * @see #copyFrom(Position)
+     */
+    public Position(Position other) {
+        this();
+        copyFrom(other);
+    }
+
+    /**
+     * Makes this position equal to another one without allocating, leaving the undo stack empty.
+     * @param other The position to copy.
+     */
+    public void copyFrom(Position other) {
+        for (int i = 0; i < colorOccupancy.length; i++) {
+            colorOccupancy[i].copyFrom(other.colorOccupancy[i]);
+        }
+        for (int i = 0; i < typeOccupancy.length; i++) {
+            typeOccupancy[i].copyFrom(other.typeOccupancy[i]);
+        }
+        occupied.copyFrom(other.occupied);
+        unmoved.copyFrom(other.unmoved);
+        System.arraycopy(other.types, 0, types, 0, SQUARES);
+        System.arraycopy(other.colors, 0, colors, 0, SQUARES);
+        System.arraycopy(other.listIndex, 0, listIndex, 0, SQUARES);
+        for (int list = 0; list < listSizes.length; list++) {
+            listSizes[list] = other.listSizes[list];
+            System.arraycopy(other.listSquares, list * SQUARES, listSquares, list * SQUARES, listSizes[list]);
+        }
+        sideToMove = other.sideToMove;
+        key = other.key;
+        pieceSquareScore = other.pieceSquareScore;
+        undoSize = 0;
+    }
+
+    /**
+     * Builds a position from a layout file, the same format Board#setupBoard reads, without creating any Piece objects,
+     * so that tools such as benchmarks can run without a window.
+     * Each line is a rank from the top; uppercase letters are black pieces, lowercase letters white pieces and spaces empty
+     * squares. Every piece starts unmoved and white is to move.
+     * @param layoutFilename The filename of the layout file.
+     * @return The position described by the file.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file contains an unknown piece symbol.
+     */
+    public static Position fromLayout(String layoutFilename) throws IOException {
+        return fromLayout(new FileReader(layoutFilename));
+    }
+
+    /**
+     * Builds a position from a layout read from any source, such as a resource on the classpath.
+     * @param layout The reader of the layout; it is closed once the layout has been read.
+     * @return The position described by the layout.
+     * @throws IOException If the layout cannot be read.
+     * @throws IllegalArgumentException If the layout contains an unknown piece symbol.
+     * @see #fromLayout(String)
+     */
+    public static Position fromLayout(Reader layout) throws IOException {
+        Position position = new Position();
+        try (BufferedReader reader = new BufferedReader(layout)) {
+            String line;
+            int row = 0;
+            while ((line = reader.readLine()) != null && row < SIZE) {
+                for (int col = 0; col < Math.min(line.length(), SIZE); col++) {
+                    char pieceChar = line.charAt(col);
+                    if (pieceChar == ' ') {
+                        continue;
+                    }
+                    PieceColor color = Character.isUpperCase(pieceChar) ? PieceColor.BLACK : PieceColor.WHITE;
+                    PieceType type = PieceType.fromSymbol(String.valueOf(Character.toUpperCase(pieceChar)));
+                    position.put(square(col, row), type, color, false);
+                }
+                row++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Converts board coordinates to a square index.
+     * @param x The x-coordinate (file) of the square.
+     * @param y The y-coordinate (rank) of the square.
+     * @return The square index.
+     */
+    public static int square(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    /**
+     * Retrieves the x-coordinate of a square.
+     * @param square The square index.
+     * @return The x-coordinate (file) of the square.
+     */
+    public static int fileOf(int square) {
+        return square % SIZE;
+    }
+
+    /**
+     * Retrieves the y-coordinate of a square.
+     * @param square The square index.
+     * @return The y-coordinate (rank) of the square.
+     */
+    public static int rankOf(int square) {
+        return square / SIZE;
+    }
+
+    /**
+     * Checks whether the given coordinates lie on the board.
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return true if the coordinates are on the board, false otherwise.
+     */
+    public static boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < SIZE && y >= 0 && y < SIZE;
+    }
+
+    /**
+     * Removes every piece from the position and gives the move to white.
+     */
+    public void clear() {
+        for (Bitboard bitboard : colorOccupancy) {
+            bitboard.clearAll();
+        }
+        for (Bitboard bitboard : typeOccupancy) {
+            bitboard.clearAll();
+        }
+        occupied.clearAll();
+        unmoved.clearAll();
+        Arrays.fill(types, EMPTY);
+        Arrays.fill(listSizes, 0);
+        sideToMove = PieceColor.WHITE;
+        key = 0;
+        pieceSquareScore = 0;
+        undoSize = 0;
+    }
+
+    /**
+     * Places a piece on a square, replacing whatever was there before.
+     * @param square The square index.
+     * @param type The type of the piece.
+     * @param color The color of the piece.
+     * @param moved Whether the piece has already moved, which matters for castling and the pawn double step.
+     */
+    public void put(int square, PieceType type, PieceColor color, boolean moved) {
+        if (types[square] != EMPTY) {
+            remove(square);
+        }
+        types[square] = (byte) type.ordinal();
+        colors[square] = (byte) color.ordinal();
+        typeOccupancy[type.ordinal()].set(square);
+        colorOccupancy[color.ordinal()].set(square);
+        occupied.set(square);
+        addToList(color.ordinal(), type.ordinal(), square);
+        key ^= Zobrist.piece(color, type, square);
+        pieceSquareScore += signedPieceSquare(color.ordinal(), type.ordinal(), square);
+        if (!moved) {
+            unmoved.set(square);
+            key ^= Zobrist.unmoved(square);
+        }
+    }
+
+    /**
+     * Removes the piece on a square, if any.
+     * @param square The square index.
+     */
+    public void remove(int square) {
+        int type = types[square];
+        if (type == EMPTY) {
+            return;
+        }
+        key ^= Zobrist.piece(colors[square], type, square);
+        pieceSquareScore -= signedPieceSquare(colors[square], type, square);
+        if (unmoved.get(square)) {
+            key ^= Zobrist.unmoved(square);
+            unmoved.clear(square);
+        }
+        typeOccupancy[type].clear(square);
+        colorOccupancy[colors[square]].clear(square);
+        occupied.clear(square);
+        removeFromList(colors[square], type, square);
+        types[square] = EMPTY;
+    }
+
+    /**
+     * Moves the piece on one square to another, capturing whatever stands on the target square.
+     * The moved piece is marked as having moved. Castling rooks and promotion are not handled here.
+     * @param from The square the piece moves from.
+     * @param to The square the piece moves to.
+     */
+    public void move(int from, int to) {
+        int type = types[from];
+        if (type == EMPTY) {
+            return;
+        }
+        int color = colors[from];
+        remove(to);
+        remove(from);
+        types[to] = (byte) type;
+        colors[to] = (byte) color;
+        typeOccupancy[type].set(to);
+        colorOccupancy[color].set(to);
+        occupied.set(to);
+        addToList(color, type, to);
+        key ^= Zobrist.piece(color, type, to);
+        pieceSquareScore += signedPieceSquare(color, type, to);
+    }
+
+    /**
+     * Appends a square to the piece list of a color and type.
+     */
+    private void addToList(int color, int type, int square) {
+        int list = color * TYPES.length + type;
+        int index = listSizes[list]++;
+        listSquares[list * SQUARES + index] = square;
+        listIndex[square] = index;
+    }
+
+    /**
+     * Removes a square from the piece list of a color and type by moving the last square of the list into its slot.
+     */
+    private void removeFromList(int color, int type, int square) {
+        int list = color * TYPES.length + type;
+        int last = listSquares[list * SQUARES + --listSizes[list]];
+        int index = listIndex[square];
+        listSquares[list * SQUARES + index] = last;
+        listIndex[last] = index;
+    }
+
+    private static int signedPieceSquare(int color, int type, int square) {
+        int value = Evaluator.pieceSquare(color, type, square);
+        return color == PieceColor.WHITE.ordinal() ? value : -value;
+    }
+
+    /**
+     * Plays a move and pushes what is needed to take it back onto the undo stack.
+     * The captured piece is removed, the moving piece is marked as moved, a castling Rook jumps to the square next to
+     * the King, a promoting Pawn becomes a Queen, and the turn passes to the other color.
+     * The move must have been generated for this position; it is not validated.
+     * @param move The packed move.
+     * @see #unmakeMove()
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = 0;
+        if (unmoved.get(from)) {
+            flags |= MOVER_UNMOVED;
+        }
+        if (unmoved.get(to)) {
+            flags |= CAPTURED_UNMOVED;
+        }
+        if (undoSize == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoSize * 2);
+            undoFlags = Arrays.copyOf(undoFlags, undoSize * 2);
+        }
+        undoMoves[undoSize] = move;
+        undoFlags[undoSize] = flags;
+        undoSize++;
+
+        PieceColor color = COLORS[colors[from]];
+        move(from, to);
+        if (Move.isPromotion(move)) {
+            put(to, PieceType.QUEEN, color, true);
+        }
+        if (Move.isCastling(move)) {
+            int direction = to > from ? 1 : -1;
+            move(MoveGenerator.castlingRookFrom(from, direction), to - direction);
+        }
+        sideToMove = opposite(sideToMove);
+        key ^= Zobrist.blackToMove();
+    }
+
+    /**
+     * Takes back the last move played with makeMove, restoring the position exactly as it was.
+     * @see #makeMove(int)
+     */
+    public void unmakeMove() {
+        undoSize--;
+        int move = undoMoves[undoSize];
+        int flags = undoFlags[undoSize];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        PieceColor color = COLORS[colors[to]];
+        PieceType type = Move.isPromotion(move) ? PieceType.PAWN : TYPES[types[to]];
+
+        if (Move.isCastling(move)) {
+            int direction = to > from ? 1 : -1;
+            int rookFrom = MoveGenerator.castlingRookFrom(from, direction);
+            remove(to - direction);
+            put(rookFrom, PieceType.ROOK, color, false);
+        }
+        remove(to);
+        put(from, type, color, (flags & MOVER_UNMOVED) == 0);
+        PieceType captured = Move.captured(move);
+        if (captured != null) {
+            put(to, captured, opposite(color), (flags & CAPTURED_UNMOVED) == 0);
+        }
+        sideToMove = opposite(sideToMove);
+        key ^= Zobrist.blackToMove();
+    }
+
+    /**
+     * Retrieves the Zobrist key of the position, which is kept up to date incrementally by every change.
+     * Equal positions with the same side to move and the same unmoved pieces always have equal keys.
+     * @return The 64-bit hash of the position.
+     * @see Zobrist
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Retrieves the sum of the Evaluator's material and piece-square values, kept up to date incrementally.
+     * @return White's total minus black's total, in centipawns.
+     * @see Evaluator
+     */
+    public int getPieceSquareScore() {
+        return pieceSquareScore;
+    }
+
+    /**
+     * Computes the Zobrist key of the position from scratch. This is slow compared to getKey
+     * and is meant for checking that the incremental key is correct.
+     * @return The 64-bit hash of the position.
+     */
+    public long computeKey() {
+        long hash = sideToMove == PieceColor.BLACK ? Zobrist.blackToMove() : 0;
+        for (int square = 0; square < SQUARES; square++) {
+            if (types[square] != EMPTY) {
+                hash ^= Zobrist.piece(colors[square], types[square], square);
+                if (unmoved.get(square)) {
+                    hash ^= Zobrist.unmoved(square);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Retrieves the number of moves that can currently be taken back with unmakeMove.
+     * @return The depth of the undo stack.
+     */
+    public int getUndoDepth() {
+        return undoSize;
+    }
+
+    /**
+     * Checks whether a square is empty.
+     * @param square The square index.
+     * @return true if no piece stands on the square, false otherwise.
+     */
+    public boolean isEmpty(int square) {
+        return !occupied.get(square);
+    }
+
+    /**
+     * Checks whether a square holds a piece of the given color.
+     * @param square The square index.
+     * @param color The color to test for.
+     * @return true if a piece of that color stands on the square, false otherwise.
+     */
+    public boolean isOccupiedBy(int square, PieceColor color) {
+        return colorOccupancy[color.ordinal()].get(square);
+    }
+
+    /**
+     * Retrieves the type of the piece on a square.
+     * @param square The square index.
+     * @return The PieceType on the square, or null if the square is empty.
+     */
+    public PieceType getType(int square) {
+        int type = types[square];
+        return type == EMPTY ? null : TYPES[type];
+    }
+
+    /**
+     * Retrieves the color of the piece on a square.
+     * @param square The square index.
+     * @return The PieceColor on the square, or null if the square is empty.
+     */
+    public PieceColor getColor(int square) {
+        return types[square] == EMPTY ? null : COLORS[colors[square]];
+    }
+
+    /**
+     * Checks whether the piece on a square has moved since the position was set up.
+     * @param square The square index.
+     * @return true if the piece has moved or the square is empty, false otherwise.
+     */
+    public boolean hasMoved(int square) {
+        return !unmoved.get(square);
+    }
+
+    /**
+     * Retrieves the set of all occupied squares. The returned bitboard is live and must not be modified.
+     * @return The occupancy of both colors.
+     */
+    public Bitboard getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * Retrieves the set of squares occupied by one color. The returned bitboard is live and must not be modified.
+     * @param color The color of the pieces.
+     * @return The occupancy of that color.
+     */
+    public Bitboard getOccupancy(PieceColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /**
+     * Retrieves the set of squares occupied by one piece type of either color.
+     * The returned bitboard is live and must not be modified.
+     * @param type The type of the pieces.
+     * @return The occupancy of that type.
+     */
+    public Bitboard getPieces(PieceType type) {
+        return typeOccupancy[type.ordinal()];
+    }
+
+    /**
+     * Collects the squares occupied by pieces of one type and color.
+     * @param type The type of the pieces.
+     * @param color The color of the pieces.
+     * @param out The bitboard that receives the result.
+     * @return The out bitboard.
+     */
+    public Bitboard getPieces(PieceType type, PieceColor color, Bitboard out) {
+        return out.copyFrom(typeOccupancy[type.ordinal()]).and(colorOccupancy[color.ordinal()]);
+    }
+
+    /**
+     * Retrieves the set of pieces that have not moved yet. The returned bitboard is live and must not be modified.
+     * @return The squares of unmoved pieces.
+     */
+    public Bitboard getUnmoved() {
+        return unmoved;
+    }
+
+    /**
+     * Retrieves the number of pieces of one type and color.
+     * @param type The type of the pieces.
+     * @param color The color of the pieces.
+     * @return The length of the piece list.
+     */
+    public int getPieceCount(PieceType type, PieceColor color) {
+        return listSizes[color.ordinal() * TYPES.length + type.ordinal()];
+    }
+
+    /**
+     * Retrieves the square of one piece from the piece list of a type and color.
+     * Together with getPieceCount this walks the pieces of one kind without allocating:
+     * {@code for (int i = 0; i < getPieceCount(type, color); i++) { int square = getPieceSquare(type, color, i); }}.
+     * The order of the list changes as pieces are removed, so it must not be changed while it is walked.
+     * @param type The type of the pieces.
+     * @param color The color of the pieces.
+     * @param index The index in the list, from 0 to getPieceCount - 1.
+     * @return The square of the piece.
+     */
+    public int getPieceSquare(PieceType type, PieceColor color, int index) {
+        return listSquares[(color.ordinal() * TYPES.length + type.ordinal()) * SQUARES + index];
+    }
+
+    /**
+     * Finds the square of a color's King, which is read from its piece list in constant time.
+     * @param color The color of the King.
+     * @return The square of the King, or -1 if that color has no King on the board.
+     */
+    public int getKingSquare(PieceColor color) {
+        int list = color.ordinal() * TYPES.length + KING;
+        return listSizes[list] > 0 ? listSquares[list * SQUARES] : -1;
+    }
+
+    /**
+     * Checks whether a color's King is attacked.
+     * @param color The color of the King.
+     * @return true if the King is in check, false if it is safe or there is no King of that color.
+     */
+    public boolean isInCheck(PieceColor color) {
+        int kingSquare = getKingSquare(color);
+        return kingSquare >= 0 && isSquareAttacked(kingSquare, opposite(color));
+    }
+
+    /**
+     * Checks whether any piece of a color attacks a square.
+     * @param square The square index.
+     * @param byColor The color of the attacking pieces.
+     * @return true if the square is attacked, false otherwise.
+     * @see #isSquareAttacked(int, PieceColor, Bitboard, Bitboard)
+     */
+    public boolean isSquareAttacked(int square, PieceColor byColor) {
+        return isSquareAttacked(square, byColor, colorOccupancy[byColor.ordinal()], occupied);
+    }
+
+    /**
+     * Checks whether a square is attacked, looking outward from the square instead of generating the attackers' moves.
+     * Each leaper pattern is looked up once from the target square and intersected with the pieces that move that way,
+     * and the rook and bishop rays from the square are intersected with the matching sliders.
+     * The probe stops at the first attacker found.
+     * Passing an occupancy other than the current one lets callers ask about the position after a move without playing it.
+     * @param square The square index.
+     * @param byColor The color of the attacking pieces.
+     * @param attackers The squares of the pieces that may attack, normally the occupancy of byColor.
+     * @param occupancy The occupied squares used to stop the sliding pieces.
+     * @return true if one of the attackers reaches the square, false otherwise.
+     */
+    public boolean isSquareAttacked(int square, PieceColor byColor, Bitboard attackers, Bitboard occupancy) {
+        if (Attacks.pawnAttacks(opposite(byColor), square).intersects(candidates.copyFrom(attackers).and(pieces(PieceType.PAWN)))) {
+            return true;
+        }
+        candidates.copyFrom(pieces(PieceType.KNIGHT)).or(pieces(PieceType.ARCHBISHOP)).or(pieces(PieceType.CHANCELLOR))
+                .or(pieces(PieceType.AMAZON)).or(pieces(PieceType.GENERAL)).and(attackers);
+        if (Attacks.knightAttacks(square).intersects(candidates)) {
+            return true;
+        }
+        candidates.copyFrom(pieces(PieceType.KING)).or(pieces(PieceType.GENERAL)).and(attackers);
+        if (Attacks.kingAttacks(square).intersects(candidates)) {
+            return true;
+        }
+        candidates.copyFrom(pieces(PieceType.CAMEL)).and(attackers);
+        if (Attacks.camelAttacks(square).intersects(candidates)) {
+            return true;
+        }
+        candidates.copyFrom(pieces(PieceType.ROOK)).or(pieces(PieceType.QUEEN)).or(pieces(PieceType.CHANCELLOR))
+                .or(pieces(PieceType.AMAZON)).and(attackers);
+        if (!candidates.isEmpty() && Attacks.rookAttacks(square, occupancy, rays).intersects(candidates)) {
+            return true;
+        }
+        candidates.copyFrom(pieces(PieceType.BISHOP)).or(pieces(PieceType.QUEEN)).or(pieces(PieceType.ARCHBISHOP))
+                .or(pieces(PieceType.AMAZON)).and(attackers);
+        return !candidates.isEmpty() && Attacks.bishopAttacks(square, occupancy, rays).intersects(candidates);
+    }
+
+    /**
+     * Collects every piece of either color that attacks a square.
+     * Only pieces that are still in the given occupancy are reported, so callers can remove pieces from the occupancy
+     * to uncover the sliders behind them, as the static exchange evaluator does.
+     * @param square The square index.
+     * @param occupancy The occupied squares, used both to stop the sliders and to filter the attackers.
+     * @param out The bitboard that receives the attackers; its previous contents are discarded.
+     * @return The out bitboard.
+     */
+    public Bitboard attackersTo(int square, Bitboard occupancy, Bitboard out) {
+        out.copyFrom(Attacks.pawnAttacks(PieceColor.BLACK, square)).and(pieces(PieceType.PAWN)).and(colorOccupancy[PieceColor.WHITE.ordinal()]);
+        candidates.copyFrom(Attacks.pawnAttacks(PieceColor.WHITE, square)).and(pieces(PieceType.PAWN)).and(colorOccupancy[PieceColor.BLACK.ordinal()]);
+        out.or(candidates);
+        candidates.copyFrom(pieces(PieceType.KNIGHT)).or(pieces(PieceType.ARCHBISHOP)).or(pieces(PieceType.CHANCELLOR))
+                .or(pieces(PieceType.AMAZON)).or(pieces(PieceType.GENERAL)).and(Attacks.knightAttacks(square));
+        out.or(candidates);
+        candidates.copyFrom(pieces(PieceType.KING)).or(pieces(PieceType.GENERAL)).and(Attacks.kingAttacks(square));
+        out.or(candidates);
+        candidates.copyFrom(pieces(PieceType.CAMEL)).and(Attacks.camelAttacks(square));
+        out.or(candidates);
+        candidates.copyFrom(pieces(PieceType.ROOK)).or(pieces(PieceType.QUEEN)).or(pieces(PieceType.CHANCELLOR))
+                .or(pieces(PieceType.AMAZON)).and(Attacks.rookAttacks(square, occupancy, rays));
+        out.or(candidates);
+        candidates.copyFrom(pieces(PieceType.BISHOP)).or(pieces(PieceType.QUEEN)).or(pieces(PieceType.ARCHBISHOP))
+                .or(pieces(PieceType.AMAZON)).and(Attacks.bishopAttacks(square, occupancy, rays));
+        return out.or(candidates).and(occupancy);
+    }
+
+    /**
+     * Checks whether the piece type on a square slides along the given direction.
+     * @param square The square index.
+     * @param direction One of the Attacks direction constants.
+     * @return true if the piece on the square moves any distance in that direction, false otherwise.
+     */
+    public boolean isSliderAlong(int square, int direction) {
+        PieceType type = getType(square);
+        if (type == null) {
+            return false;
+        }
+        switch (type) {
+            case QUEEN:
+            case AMAZON:
+                return true;
+            case ROOK:
+            case CHANCELLOR:
+                return Attacks.isOrthogonal(direction);
+            case BISHOP:
+            case ARCHBISHOP:
+                return !Attacks.isOrthogonal(direction);
+            default:
+                return false;
+        }
+    }
+
+    private Bitboard pieces(PieceType type) {
+        return typeOccupancy[type.ordinal()];
+    }
+
+    /**
+     * Retrieves the color whose turn it is.
+     * @return The side to move.
+     */
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the color whose turn it is.
+     * @param sideToMove The side to move.
+     */
+    public void setSideToMove(PieceColor sideToMove) {
+        if (this.sideToMove != sideToMove) {
+            key ^= Zobrist.blackToMove();
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Retrieves the opposite of a color.
+     * @param color The color.
+     * @return WHITE for BLACK and BLACK for WHITE.
+     */
+    public static PieceColor opposite(PieceColor color) {
+        return color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+    }
+}
@@ -0,0 +1,416 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The Search class finds the best move in a position with a negamax alpha-beta search and iterative deepening.
+ * It searches to depth 1, then 2, and so on, until a limit of its TimeManager is reached or stop is called,
+ * and it always answers with the best move of the deepest iteration it got through, together with any better move
+ * the interrupted iteration had already proven. Every completed iteration is reported to a listener as a SearchInfo.
+ * The search plays and takes back moves on a single Position copied once per search, generates moves into one
+ * preallocated MoveList per ply, and caches its results in a shared TranspositionTable, so no per-node allocation
+ * takes place. The best move of every node is stored in the table and searched first in the next iteration.
+ * Moves are tried in the order of a staged MovePicker: the table move, captures by MVV-LVA, two killer moves per ply,
+ * and then the quiet moves by a history table of the quiet moves that caused cut-offs, indexed by piece type and
+ * destination square.
+ * No new iteration is started once the soft time limit has passed, and the soft limit is stretched for every
+ * iteration that changes the best move; a running iteration is only abandoned at the hard time limit or node limit.
+ * At the end of the main search the position is not scored as it stands. A quiescence search first plays out
+ * the captures and promotions until the position is quiet, so that a move is never judged in the middle of a trade.
+ * The side to move may always stand pat on the static score instead of capturing, and captures that lose material
+ * according to the static exchange evaluation are not searched at all.
+ * @see Evaluator
+ * @see StaticExchange
+ * @see TimeManager
+ * @see MovePicker
+ * @see TranspositionTable
+ */
+public final class Search {
+    /**
+     * The deepest ply the search can reach.
+     */
+    public static final int MAX_PLY = 128;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    /**
+     * The stop request of searches that can only be stopped through stop; it is never set.
+     */
+    static final AtomicBoolean NO_STOP_REQUEST = new AtomicBoolean();
+
+    private final TranspositionTable table;
+    private final MoveGenerator generator = new MoveGenerator();
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[Position.TYPES.length][Position.SQUARES];
+    private final Position position = new Position();
+    private final StaticExchange exchange = new StaticExchange();
+    private volatile boolean stopped;
+    private AtomicBoolean stopRequest = NO_STOP_REQUEST;
+    private long nodes;
+    private long startTime;
+    private long deadline;
+    private long maxNodes;
+    private int rootBestMove;
+    private int rootBestScore;
+    private Consumer<SearchInfo> listener;
+    private int depthOffset;
+
+    /**
+     * Constructs a search that caches its results in the given table.
+     * @param table The transposition table, which may be shared with other searches.
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            pickers[ply] = new MovePicker();
+        }
+    }
+
+    /**
+     * Sets the listener that receives a SearchInfo after every completed iteration.
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(Consumer<SearchInfo> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets how many plies deeper than usual the iterative deepening starts. Helper threads of a parallel search use
+     * different offsets so that they work on different depths at the same time instead of repeating each other.
+     * @param depthOffset The offset; 0 starts at depth 1.
+     * @see ParallelSearch
+     */
+    public void setDepthOffset(int depthOffset) {
+        this.depthOffset = depthOffset;
+    }
+
+    /**
+     * Searches a position for the side to move with a fixed time and depth limit.
+     * @param root The position to search.
+     * @param maxDepth The deepest iteration to search.
+     * @param maxMillis The time the search may take, in milliseconds.
+     * @return The best move found, or Move.NONE if the side to move has no legal move.
+     * @see #search(Position, TimeManager)
+     */
+    public int search(Position root, int maxDepth, long maxMillis) {
+        return search(root, new TimeManager(maxMillis, maxMillis, TimeManager.UNLIMITED, maxDepth));
+    }
+
+    /**
+     * Searches a position for the side to move.
+     * The position is copied first, so it may be changed by the caller while the search runs.
+     * @param root The position to search.
+     * @param limits The time, node and depth limits of the search.
+     * @return The best move found, or Move.NONE if the side to move has no legal move.
+     */
+    public int search(Position root, TimeManager limits) {
+        table.newSearch();
+        stopped = false;
+        return run(root, limits);
+    }
+
+    /**
+     * Runs the iterative deepening without starting a new age in the transposition table and without clearing
+     * the stop flag, for parallel searches where several threads share one table and one age, and where a helper
+     * may be stopped before its thread has even started.
+     * @see #resetStop()
+     * @see #run(Position, TimeManager, AtomicBoolean)
+     */
+    int run(Position root, TimeManager limits) {
+        return run(root, limits, NO_STOP_REQUEST);
+    }
+
+    /**
+     * Runs the iterative deepening like run(Position, TimeManager), and also stops once a stop request is set.
+     * Unlike the stop flag, the request belongs to one search only and is never cleared, so a request made
+     * before the search has even started on its thread is not lost when the stop flag is reset.
+     * It is polled together with the clock, once every TIME_CHECK_INTERVAL nodes.
+     * @param root The position to search.
+     * @param limits The time, node and depth limits of the search.
+     * @param stopRequest The request the search stops on, which may be set from any thread.
+     * @return The best move found, or Move.NONE if the side to move has no legal move.
+     */
+    int run(Position root, TimeManager limits, AtomicBoolean stopRequest) {
+        this.stopRequest = stopRequest;
+        if (stopRequest.get()) {
+            stopped = true;
+        }
+        position.copyFrom(root);
+        nodes = 0;
+        startTime = System.nanoTime();
+        long hardMillis = limits.getHardMillis();
+        deadline = hardMillis == TimeManager.UNLIMITED ? Long.MAX_VALUE : startTime + hardMillis * 1_000_000L;
+        maxNodes = limits.getMaxNodes();
+        rootBestMove = Move.NONE;
+        rootBestScore = -Evaluator.INFINITE;
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        ageHistory();
+
+        int bestMove = Move.NONE;
+        int instability = 0;
+        int depthLimit = Math.min(limits.getMaxDepth(), MAX_PLY - 1);
+        for (int depth = 1 + depthOffset; depth <= depthLimit; depth++) {
+            int previousBestMove = bestMove;
+            int score = negamax(depth, 0, -Evaluator.INFINITE, Evaluator.INFINITE);
+            if (rootBestMove != Move.NONE) {
+                bestMove = rootBestMove;
+            }
+            if (stopped) {
+                break;
+            }
+            if (listener != null) {
+                listener.accept(new SearchInfo(depth, score, bestMove, nodes, getElapsedMillis()));
+            }
+            if (bestMove == Move.NONE || Math.abs(score) >= Evaluator.MATE - MAX_PLY) {
+                break;
+            }
+            if (previousBestMove != Move.NONE) {
+                instability = bestMove != previousBestMove ? instability + 2 : Math.max(0, instability - 1);
+            }
+            if (getElapsedMillis() >= limits.getSoftMillis(instability)) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Asks the search to stop as soon as possible. It may be called from any thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Clears the stop flag ahead of a call to run.
+     */
+    void resetStop() {
+        stopped = false;
+    }
+
+    /**
+     * Checks whether the search has been stopped, by stop or by running out of time.
+     * @return true if the search is stopping or has stopped.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Retrieves the number of nodes searched by the current or last search.
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Retrieves the score of the best move found at the root by the current or last search.
+     * @return The score from the point of view of the side to move.
+     */
+    public int getBestScore() {
+        return rootBestScore;
+    }
+
+    private long getElapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000L;
+    }
+
+    /**
+     * Searches the current position to the given depth.
+     * @return The score from the point of view of the side to move, or 0 if the search was stopped.
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (limitReached()) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        long key = position.getKey();
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        PieceColor us = position.getSideToMove();
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        generator.generateLegal(position, us, moves);
+        if (moves.isEmpty()) {
+            return position.isInCheck(us) ? -Evaluator.MATE + ply : 0;
+        }
+        MovePicker picker = pickers[ply];
+        picker.init(position, moves, ttMove, killers[ply][0], killers[ply][1], history);
+
+        int originalAlpha = alpha;
+        int bestScore = -Evaluator.INFINITE;
+        int bestMove = Move.NONE;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            position.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            position.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (ply == 0) {
+                        rootBestMove = move;
+                        rootBestScore = score;
+                    }
+                    if (alpha >= beta) {
+                        if (!MovePicker.isTactical(move)) {
+                            rememberCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and promotions, or every evasion when in check, until the position is quiet.
+     * @return The score from the point of view of the side to move, or 0 if the search was stopped.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        if (limitReached()) {
+            return 0;
+        }
+        int standPat = Evaluator.evaluate(position);
+        if (ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        PieceColor us = position.getSideToMove();
+        boolean inCheck = position.isInCheck(us);
+        int bestScore = -Evaluator.MATE + ply;
+        if (!inCheck) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            bestScore = standPat;
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        generator.generateLegalCaptures(position, us, moves);
+        MovePicker picker = pickers[ply];
+        picker.init(position, moves, Move.NONE, Move.NONE, Move.NONE, history);
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            if (!inCheck && exchange.evaluate(position, move) < 0) {
+                continue;
+            }
+            position.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            position.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Counts a node and checks whether the search has to stop: on request, at the node limit,
+     * or at the hard time limit, whose clock and stop request are only read once every TIME_CHECK_INTERVAL nodes.
+     * @return true if the search has been stopped.
+     */
+    private boolean limitReached() {
+        if (++nodes >= maxNodes || ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0
+                && (System.nanoTime() >= deadline || stopRequest.get()))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Records a quiet move that caused a beta cut-off as a killer of its ply and raises its history score.
+     * The history bonus grows with the square of the remaining depth, since cut-offs near the root save the most work.
+     */
+    private void rememberCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] byDestination = history[position.getType(Move.from(move)).ordinal()];
+        byDestination[Move.to(move)] += depth * depth;
+        if (byDestination[Move.to(move)] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halves every history score, so that what was learnt in earlier searches still counts but fades.
+     */
+    private void ageHistory() {
+        for (int[] byDestination : history) {
+            for (int square = 0; square < byDestination.length; square++) {
+                byDestination[square] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Converts a mate score relative to the current node into one relative to the root and back,
+     * so that a mate stored in the table keeps its distance when it is found again at another ply.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= Evaluator.MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Evaluator.MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= Evaluator.MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Evaluator.MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
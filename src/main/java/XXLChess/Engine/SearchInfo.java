@@ -0,0 +1,95 @@
+package XXLChess.Engine;
+
+/**
+ * The SearchInfo class reports the result of one completed iteration of the search:
+ * the depth reached, the score and best move found at that depth, and how much work it took.
+ * @see Search
+ */
+public final class SearchInfo {
+    private final int depth;
+    private final int score;
+    private final int bestMove;
+    private final long nodes;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs a search report.
+     * @param depth The depth of the completed iteration.
+     * @param score The score of the best move, from the point of view of the side to move.
+     * @param bestMove The best move found, as a packed move.
+     * @param nodes The number of nodes searched so far.
+     * @param elapsedMillis The time spent so far in milliseconds.
+     */
+    public SearchInfo(int depth, int score, int bestMove, long nodes, long elapsedMillis) {
+        this.depth = depth;
+        this.score = score;
+        this.bestMove = bestMove;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Retrieves the depth of the completed iteration.
+     * @return The depth in plies.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Retrieves the score of the best move.
+     * @return The score in centipawns, or a mate score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the best move found.
+     * @return The packed move.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Retrieves the number of nodes searched so far.
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Retrieves the time spent so far.
+     * @return The elapsed time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Retrieves the search speed.
+     * @return The number of nodes searched per second.
+     */
+    public long getNodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+
+    /**
+     * Checks whether the score announces a forced mate for either side.
+     * @return true if the score is a mate score, false otherwise.
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Evaluator.MATE - Search.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        String scoreText = isMateScore()
+                ? "mate " + (score > 0 ? (Evaluator.MATE - score + 1) / 2 : -(Evaluator.MATE + score) / 2)
+                : "cp " + score;
+        return "depth " + depth + " score " + scoreText + " nodes " + nodes + " nps " + getNodesPerSecond()
+                + " time " + elapsedMillis + " move " + Move.toString(bestMove);
+    }
+}
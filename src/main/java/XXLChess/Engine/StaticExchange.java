@@ -0,0 +1,152 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+
+/**
+ * The StaticExchange class works out the material outcome of a sequence of captures on one square
+ * without playing any moves (static exchange evaluation, SEE).
+ * Both sides take turns capturing on the square with their least valuable attacker, and either side may stop
+ * as soon as continuing would lose material. Attackers are found with a reverse probe from the square, and each capturer
+ * is removed from the occupancy before the next probe, so sliders lined up behind it (x-rays) join the exchange.
+ * A King only captures if the other side has no attacker left. Pins are not taken into account.
+ * Values are the Evaluator's material values, which follow the values the pieces carry in the game.
+ * @see Evaluator#value(PieceType)
+ */
+public final class StaticExchange {
+    /**
+     * The piece types in the order they are sent into an exchange, cheapest first and the King last.
+     */
+    private static final PieceType[] CAPTURE_ORDER = {
+            PieceType.PAWN, PieceType.KNIGHT, PieceType.CAMEL, PieceType.BISHOP, PieceType.GENERAL, PieceType.ROOK,
+            PieceType.ARCHBISHOP, PieceType.CHANCELLOR, PieceType.QUEEN, PieceType.AMAZON, PieceType.KING
+    };
+    private static final int PROMOTION_GAIN = Evaluator.value(PieceType.QUEEN) - Evaluator.value(PieceType.PAWN);
+
+    private final int[] gain = new int[64];
+    private final Bitboard occupancy = new Bitboard();
+    private final Bitboard attackers = new Bitboard();
+    private final Bitboard candidates = new Bitboard();
+
+    /**
+     * Evaluates the exchange started by a move.
+     * @param position The position before the move.
+     * @param move The packed move; it does not have to be a capture.
+     * @return The material the moving side wins (positive) or loses (negative) once the exchange on the target square
+     *         has been played out, in centipawns.
+     */
+    public int evaluate(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        PieceType captured = position.getType(to);
+        PieceType mover = position.getType(from);
+        int firstGain = captured == null ? 0 : Evaluator.value(captured);
+        int moverValue = Evaluator.value(mover);
+        if (Move.isPromotion(move)) {
+            firstGain += PROMOTION_GAIN;
+            moverValue = Evaluator.value(PieceType.QUEEN);
+        }
+        occupancy.copyFrom(position.getOccupied()).clear(from);
+        return exchange(position, to, Position.opposite(position.getColor(from)), firstGain, moverValue, mover);
+    }
+
+    /**
+     * Works out how much the opponent of the piece on a square can win by starting an exchange on it.
+     * @param position The position.
+     * @param square The square of the piece under threat.
+     * @return The material the opponent wins, or 0 if the square is empty, not attacked, or safely defended.
+     */
+    public int threat(Position position, int square) {
+        PieceColor owner = position.getColor(square);
+        if (owner == null) {
+            return 0;
+        }
+        PieceColor opponent = Position.opposite(owner);
+        occupancy.copyFrom(position.getOccupied());
+        position.attackersTo(square, occupancy, attackers).and(position.getOccupancy(opponent));
+        PieceType attacker = leastValuable(position, attackers);
+        if (attacker == null) {
+            return 0;
+        }
+        int from = candidates.lowest();
+        if (attacker == PieceType.KING && defended(position, square, from, owner)) {
+            return 0;
+        }
+        int firstGain = Evaluator.value(position.getType(square));
+        int attackerValue = Evaluator.value(attacker);
+        if (attacker == PieceType.PAWN && MoveGenerator.isPromotionSquare(opponent, square)) {
+            firstGain += PROMOTION_GAIN;
+            attackerValue = Evaluator.value(PieceType.QUEEN);
+        }
+        occupancy.clear(from);
+        return Math.max(0, exchange(position, square, owner, firstGain, attackerValue, attacker));
+    }
+
+    /**
+     * Plays out the exchange after a first capture with the swap algorithm.
+     * @param square The square the exchange takes place on.
+     * @param side The side to recapture next.
+     * @param firstGain The value won by the first capture.
+     * @param onSquare The value of the piece that made the first capture and now stands on the square.
+     * @param firstType The type of the piece that made the first capture.
+     * @return The net gain of the side that made the first capture.
+     */
+    private int exchange(Position position, int square, PieceColor side, int firstGain, int onSquare, PieceType firstType) {
+        gain[0] = firstGain;
+        int depth = 0;
+        if (firstType == PieceType.KING) {
+            return firstGain;
+        }
+        while (depth + 1 < gain.length) {
+            position.attackersTo(square, occupancy, attackers).and(position.getOccupancy(side));
+            PieceType attacker = leastValuable(position, attackers);
+            if (attacker == null) {
+                break;
+            }
+            int from = candidates.lowest();
+            if (attacker == PieceType.KING && defended(position, square, from, side)) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            onSquare = Evaluator.value(attacker);
+            if (attacker == PieceType.PAWN && MoveGenerator.isPromotionSquare(side, square)) {
+                gain[depth] += PROMOTION_GAIN;
+                onSquare = Evaluator.value(PieceType.QUEEN);
+            }
+            occupancy.clear(from);
+            side = Position.opposite(side);
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Finds the cheapest piece type among a set of attackers, leaving the attackers of that type in candidates.
+     */
+    private PieceType leastValuable(Position position, Bitboard attackerSet) {
+        if (attackerSet.isEmpty()) {
+            return null;
+        }
+        for (PieceType type : CAPTURE_ORDER) {
+            candidates.copyFrom(position.getPieces(type)).and(attackerSet);
+            if (!candidates.isEmpty()) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a King capturing on a square would walk into an attacker of the other side.
+     */
+    private boolean defended(Position position, int square, int kingSquare, PieceColor kingColor) {
+        occupancy.clear(kingSquare);
+        position.attackersTo(square, occupancy, candidates).and(position.getOccupancy(Position.opposite(kingColor)));
+        occupancy.set(kingSquare);
+        return !candidates.isEmpty();
+    }
+}
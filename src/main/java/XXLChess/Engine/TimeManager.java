@@ -0,0 +1,166 @@
+package XXLChess.Engine;
+
+/**
+ * The TimeManager class holds the limits of one search: a soft and a hard time limit, a node limit and a depth limit.
+ * The soft limit is the time the search is meant to take. It is only looked at between iterations: once it has
+ * passed, no new iteration is started. It is stretched while the best move keeps changing from one iteration to the
+ * next, since an unstable root is exactly where more time pays off, but never beyond the hard limit. The hard limit
+ * is the time at which a running iteration is abandoned, and keeps the side to move from losing on time.
+ * Clock-based limits come from forClock, which shares the remaining time out over an estimate of the moves still
+ * to be played and adds most of the increment. For reproducible runs, fixedDepth and fixedNodes limit only the depth
+ * or the node count, so that the same search on the same machine always visits the same tree.
+ * A TimeManager is immutable, so one instance can be shared by every thread of a parallel search.
+ * @see Search
+ */
+public final class TimeManager {
+    /**
+     * The limit value meaning that a search is not limited by time or by nodes.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    /**
+     * The number of moves to go assumed when nothing better is known.
+     */
+    public static final int DEFAULT_MOVES_TO_GO = 30;
+    /**
+     * The time kept back on every move for drawing, the hand-over of the move and timer jitter, in milliseconds.
+     */
+    public static final long MOVE_OVERHEAD_MILLIS = 50;
+    private static final int MAX_INSTABILITY = 6;
+
+    private final long softMillis;
+    private final long hardMillis;
+    private final long maxNodes;
+    private final int maxDepth;
+
+    /**
+     * Constructs a TimeManager with explicit limits.
+     * @param softMillis The time after which no new iteration is started, in milliseconds, or UNLIMITED.
+     * @param hardMillis The time after which the search stops, in milliseconds, or UNLIMITED; at least softMillis.
+     * @param maxNodes The number of nodes after which the search stops, or UNLIMITED.
+     * @param maxDepth The deepest iteration to search.
+     */
+    public TimeManager(long softMillis, long hardMillis, long maxNodes, int maxDepth) {
+        this.softMillis = softMillis;
+        this.hardMillis = Math.max(softMillis, hardMillis);
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Creates the limits for a move played on a clock.
+     * The soft limit is the remaining time divided by the moves to go plus three quarters of the increment,
+     * and the hard limit is four times that, but never more than a third of the remaining time.
+     * @param remainingMillis The time left on the clock of the side to move, in milliseconds.
+     * @param incrementMillis The time added to the clock after every move, in milliseconds.
+     * @param movesToGo The expected number of moves the side to move still has to play.
+     * @return The limits of the search.
+     */
+    public static TimeManager forClock(long remainingMillis, long incrementMillis, int movesToGo) {
+        long available = Math.max(1, remainingMillis - MOVE_OVERHEAD_MILLIS);
+        long soft = available / Math.max(1, movesToGo) + incrementMillis * 3 / 4;
+        long hard = Math.min(soft * 4, available / 3);
+        soft = Math.max(1, Math.min(soft, available / 3));
+        return new TimeManager(soft, Math.max(soft, hard), UNLIMITED, Search.MAX_PLY);
+    }
+
+    /**
+     * Creates limits that let every search take the same amount of time.
+     * @param millis The time for the search, in milliseconds.
+     * @return The limits of the search.
+     */
+    public static TimeManager fixedTime(long millis) {
+        return new TimeManager(millis, millis, UNLIMITED, Search.MAX_PLY);
+    }
+
+    /**
+     * Creates limits that search to a fixed depth, however long it takes.
+     * @param depth The deepest iteration to search.
+     * @return The limits of the search.
+     */
+    public static TimeManager fixedDepth(int depth) {
+        return new TimeManager(UNLIMITED, UNLIMITED, UNLIMITED, depth);
+    }
+
+    /**
+     * Creates limits that stop after a fixed number of nodes, however long it takes.
+     * @param nodes The number of nodes to search.
+     * @return The limits of the search.
+     */
+    public static TimeManager fixedNodes(long nodes) {
+        return new TimeManager(UNLIMITED, UNLIMITED, nodes, Search.MAX_PLY);
+    }
+
+    /**
+     * Estimates how many moves the side to move still has to play from the number of pieces on the board.
+     * A full 14x14 board is expected to last longer than the usual game, and an endgame with a handful of pieces
+     * is still given some moves to go, so that the clock is never spent on a single move.
+     * @param position The position.
+     * @return The expected number of moves to go.
+     */
+    public static int estimateMovesToGo(Position position) {
+        int pieces = position.getOccupied().cardinality();
+        return Math.max(15, Math.min(50, 10 + pieces / 2));
+    }
+
+    /**
+     * Retrieves the soft time limit, stretched for an unstable best move.
+     * Each unit of instability adds half of the soft limit, up to the hard limit.
+     * @param instability How unstable the best move has been over the last iterations, 0 if it has not changed.
+     * @return The time after which no new iteration should be started, in milliseconds.
+     */
+    public long getSoftMillis(int instability) {
+        if (softMillis == UNLIMITED) {
+            return UNLIMITED;
+        }
+        int scale = Math.min(instability, MAX_INSTABILITY);
+        return Math.min(hardMillis, softMillis + softMillis * scale / 2);
+    }
+
+    /**
+     * Retrieves the hard time limit.
+     * @return The time after which the search stops, in milliseconds, or UNLIMITED.
+     */
+    public long getHardMillis() {
+        return hardMillis;
+    }
+
+    /**
+     * Retrieves the node limit.
+     * @return The number of nodes after which the search stops, or UNLIMITED.
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Retrieves the depth limit.
+     * @return The deepest iteration to search.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Parses limits from a command-line argument: {@code depth=N}, {@code nodes=N}, or a number of seconds.
+     * @param argument The argument.
+     * @return The limits of the search.
+     * @throws NumberFormatException If the argument is not in one of the three forms.
+     */
+    public static TimeManager parse(String argument) {
+        if (argument.startsWith("depth=")) {
+            return fixedDepth(Integer.parseInt(argument.substring("depth=".length())));
+        }
+        if (argument.startsWith("nodes=")) {
+            return fixedNodes(Long.parseLong(argument.substring("nodes=".length())));
+        }
+        return fixedTime(Long.parseLong(argument) * 1000L);
+    }
+
+    @Override
+    public String toString() {
+        if (softMillis == UNLIMITED) {
+            return maxNodes == UNLIMITED ? "depth " + maxDepth : maxNodes + " nodes";
+        }
+        return softMillis == hardMillis ? softMillis + " ms" : softMillis + "-" + hardMillis + " ms";
+    }
+}
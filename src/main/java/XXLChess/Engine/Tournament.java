@@ -0,0 +1,356 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Tournament class plays a match of many headless games between two engine settings, the candidate and the
+ * baseline, and reports the result as wins, draws and losses, an Elo difference with error bars and an SPRT decision.
+ * There is no window, no animation and no frame pacing: each game is a Game played move by move with the AI's
+ * synchronous getMove, and as many games as there are workers are played at once, one per thread, so a match keeps
+ * every core of the machine busy. Each worker has its own AIs and transposition tables, cleared before every game.
+ * Each engine plays either with fixed limits for every move, as parsed by TimeManager#parse ({@code depth=N},
+ * {@code nodes=N} or seconds per move), or on a clock given as {@code seconds+increment}, like the time controls of
+ * config.json. A player whose clock runs out loses the game. Clocks run on wall time, so a match on the clock
+ * should not play more games at once than there are cores, or the engines are starved of the time they plan with.
+ * Games are played in pairs from the same start with the colors swapped, so that neither engine profits from a
+ * lucky opening. Each pair starts from one of the layout files, in turn, followed by a few random legal moves,
+ * so that deterministic engines do not play the same game over and over.
+ * A game ends in checkmate, in stalemate, after a threefold repetition, when only the Kings are left,
+ * or as a draw after MAX_PLIES plies. An engine that fails to return a legal move loses the game.
+ * The match stops after the requested number of games, or as soon as the SPRT accepts either hypothesis.
+ * Usage: {@code Tournament <candidate> <baseline> [games] [layout files, comma-separated] [concurrency]
+ * [hash megabytes] [elo0] [elo1] [seed]}, defaulting to 1000 games from level1.txt, one game per core,
+ * 8 megabytes per engine, an SPRT of 0 against 10 Elo and a seed taken from the clock.
+ * The seed of the random opening moves is printed with the match, so that a match can be played again from it.
+ * @see MatchScore
+ * @see Game
+ * @see AI
+ */
+public final class Tournament {
+    /**
+     * The number of random plies played from the layout before the engines take over.
+     */
+    public static final int OPENING_PLIES = 4;
+    /**
+     * The number of plies after which a game is adjudicated a draw.
+     */
+    public static final int MAX_PLIES = 400;
+    /**
+     * The probability of the SPRT accepting elo1 when elo0 is true, and of accepting elo0 when elo1 is true.
+     */
+    public static final double SPRT_ERROR = 0.05;
+    private static final int CANDIDATE = 0;
+    private static final int BASELINE = 1;
+    private static final int WIN = 1;
+    private static final int DRAW = 0;
+    private static final int LOSS = -1;
+    private static final int REPORT_INTERVAL = 20;
+    private static final String[] TERMINATIONS =
+            {"checkmate", "time", "illegal move", "stalemate", "repetition", "bare kings", "move limit"};
+    private static final int CHECKMATE = 0;
+    private static final int TIME = 1;
+    private static final int ILLEGAL_MOVE = 2;
+    private static final int STALEMATE = 3;
+    private static final int REPETITION = 4;
+    private static final int BARE_KINGS = 5;
+    private static final int MOVE_LIMIT = 6;
+
+    private final List<Position> layouts;
+    private final TimeManager[] fixedLimits = new TimeManager[2];
+    private final long[] baseMillis = new long[2];
+    private final long[] incrementMillis = new long[2];
+    private final int hashMegabytes;
+    private final long seed;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final int[] terminations = new int[TERMINATIONS.length];
+    private int wins;
+    private int draws;
+    private int losses;
+    private volatile int decision = MatchScore.CONTINUE;
+
+    /**
+     * Constructs a tournament between two engine settings.
+     * @param layouts The positions the games start from, in turn; white is to move in each.
+     * @param candidate The limits of the candidate: {@code depth=N}, {@code nodes=N}, seconds per move,
+     *                  or a clock as {@code seconds+increment}.
+     * @param baseline The limits of the baseline, in the same form.
+     * @param hashMegabytes The size of the transposition table of each engine in each worker.
+     * @param seed The seed of the random opening moves, so that a match can be repeated.
+     * @throws NumberFormatException If either limit is not in one of the accepted forms.
+     */
+    public Tournament(List<Position> layouts, String candidate, String baseline, int hashMegabytes, long seed) {
+        this.layouts = new ArrayList<>(layouts);
+        this.hashMegabytes = hashMegabytes;
+        this.seed = seed;
+        parseLimits(CANDIDATE, candidate);
+        parseLimits(BASELINE, baseline);
+    }
+
+    private void parseLimits(int engine, String limits) {
+        int plus = limits.indexOf('+');
+        if (plus < 0) {
+            fixedLimits[engine] = TimeManager.parse(limits);
+        } else {
+            baseMillis[engine] = Math.round(Double.parseDouble(limits.substring(0, plus)) * 1000);
+            incrementMillis[engine] = Math.round(Double.parseDouble(limits.substring(plus + 1)) * 1000);
+        }
+    }
+
+    /**
+     * Plays the match and returns its result.
+     * Progress is printed every few games, with the Elo estimate and the log-likelihood ratio of the SPRT.
+     * @param games The maximum number of games; rounded up to an even number, since games are played in pairs.
+     * @param concurrency The number of games played at once.
+     * @param elo0 The Elo difference of the null hypothesis of the SPRT.
+     * @param elo1 The Elo difference of the alternative hypothesis of the SPRT.
+     * @param out The stream progress is printed to, or null to play silently.
+     * @return The wins, draws and losses of the candidate.
+     * @throws InterruptedException If the calling thread is interrupted while the games are played.
+     */
+    public MatchScore play(int games, int concurrency, double elo0, double elo1, PrintStream out)
+            throws InterruptedException {
+        int totalGames = games + games % 2;
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        for (int i = 0; i < Math.max(1, concurrency); i++) {
+            workers.execute(() -> runWorker(totalGames, elo0, elo1, out));
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        return getScore();
+    }
+
+    /**
+     * Retrieves the result of the games finished so far.
+     * @return The wins, draws and losses of the candidate.
+     */
+    public synchronized MatchScore getScore() {
+        return new MatchScore(wins, draws, losses);
+    }
+
+    /**
+     * Retrieves how many games ended in each way so far.
+     * @return The termination counts, in the order checkmate, time, illegal move, stalemate, repetition,
+     *         bare kings and move limit.
+     */
+    public synchronized int[] getTerminations() {
+        return terminations.clone();
+    }
+
+    /**
+     * Retrieves the SPRT decision reached so far.
+     * @return MatchScore.ACCEPT_H1, MatchScore.ACCEPT_H0, or MatchScore.CONTINUE if the match ran out of games first.
+     */
+    public int getDecision() {
+        return decision;
+    }
+
+    /**
+     * Plays games on one thread until the match is over, with a pair of AIs per engine that is kept between games.
+     */
+    private void runWorker(int totalGames, double elo0, double elo1, PrintStream out) {
+        TranspositionTable[] tables = new TranspositionTable[2];
+        AI[][] players = new AI[2][2];
+        for (int engine = CANDIDATE; engine <= BASELINE; engine++) {
+            tables[engine] = new TranspositionTable(hashMegabytes);
+            for (PieceColor color : PieceColor.values()) {
+                AI ai = new AI(color, tables[engine], 1);
+                ai.setFixedLimits(fixedLimits[engine]);
+                players[engine][color.ordinal()] = ai;
+            }
+        }
+        try {
+            int index;
+            while (decision == MatchScore.CONTINUE && (index = nextGame.getAndIncrement()) < totalGames) {
+                boolean candidateWhite = index % 2 == 0;
+                int whiteEngine = candidateWhite ? CANDIDATE : BASELINE;
+                tables[CANDIDATE].clear();
+                tables[BASELINE].clear();
+                AI white = players[whiteEngine][PieceColor.WHITE.ordinal()];
+                AI black = players[BASELINE - whiteEngine][PieceColor.BLACK.ordinal()];
+                int[] termination = new int[1];
+                int whiteResult = playGame(openingOf(index / 2), white, black, whiteEngine, termination);
+                record(candidateWhite ? whiteResult : -whiteResult, termination[0], elo0, elo1, out);
+            }
+        } finally {
+            for (AI[] engine : players) {
+                for (AI ai : engine) {
+                    ai.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the start of a game pair: a layout, taken in turn, and OPENING_PLIES random legal moves.
+     */
+    private Game openingOf(int pair) {
+        Game game = new Game(layouts.get(pair % layouts.size()));
+        Random random = new Random(seed * 31 + pair);
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < OPENING_PLIES; ply++) {
+            moves.clear();
+            game.generateLegalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.play(moves.get(random.nextInt(moves.size())));
+        }
+        return game;
+    }
+
+    /**
+     * Plays one game to the end.
+     * @param whiteEngine The engine playing white, whose clock is used for white.
+     * @param termination Receives how the game ended.
+     * @return WIN, DRAW or LOSS, from white's point of view.
+     */
+    private int playGame(Game game, AI white, AI black, int whiteEngine, int[] termination) {
+        int blackEngine = BASELINE - whiteEngine;
+        long[] clocks = {baseMillis[whiteEngine], baseMillis[blackEngine]};
+        long[] increments = {incrementMillis[whiteEngine], incrementMillis[blackEngine]};
+        boolean[] onClock = {fixedLimits[whiteEngine] == null, fixedLimits[blackEngine] == null};
+        long[] keys = new long[MAX_PLIES + 1];
+        int plies = 0;
+        while (true) {
+            Position position = game.getPosition();
+            PieceColor side = game.getSideToMove();
+            int sign = side == PieceColor.WHITE ? 1 : -1;
+            GameStatus status = game.evaluateStatus();
+            if (status.isGameOver()) {
+                termination[0] = status.isStalemate() ? STALEMATE : CHECKMATE;
+                return status.isStalemate() ? DRAW : -sign;
+            }
+            if (position.getOccupied().cardinality() == 2 && position.getPieceCount(PieceType.KING, PieceColor.WHITE) == 1
+                    && position.getPieceCount(PieceType.KING, PieceColor.BLACK) == 1) {
+                termination[0] = BARE_KINGS;
+                return DRAW;
+            }
+            keys[plies] = position.getKey();
+            if (isThreefold(keys, plies)) {
+                termination[0] = REPETITION;
+                return DRAW;
+            }
+            if (plies == MAX_PLIES) {
+                termination[0] = MOVE_LIMIT;
+                return DRAW;
+            }
+
+            int seat = side.ordinal();
+            AI ai = side == PieceColor.WHITE ? white : black;
+            long start = System.nanoTime();
+            int move = onClock[seat] ? ai.getMove(position, clocks[seat], increments[seat]) : ai.getMove(position);
+            if (onClock[seat]) {
+                clocks[seat] -= (System.nanoTime() - start) / 1_000_000L;
+                if (clocks[seat] <= 0) {
+                    termination[0] = TIME;
+                    return -sign;
+                }
+                clocks[seat] += increments[seat];
+            }
+            try {
+                game.play(move);
+            } catch (IllegalArgumentException e) {
+                termination[0] = ILLEGAL_MOVE;
+                return -sign;
+            }
+            plies++;
+        }
+    }
+
+    /**
+     * Checks whether the position at the last ply has occurred twice before with the same side to move.
+     */
+    private static boolean isThreefold(long[] keys, int last) {
+        int count = 1;
+        for (int ply = last - 2; ply >= 0; ply -= 2) {
+            if (keys[ply] == keys[last] && ++count == 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the result of a game for the candidate, prints the progress now and then and decides the SPRT.
+     */
+    private synchronized void record(int result, int termination, double elo0, double elo1, PrintStream out) {
+        if (result == WIN) {
+            wins++;
+        } else if (result == LOSS) {
+            losses++;
+        } else {
+            draws++;
+        }
+        terminations[termination]++;
+        MatchScore score = getScore();
+        boolean decided = false;
+        if (decision == MatchScore.CONTINUE) {
+            decision = score.sprt(elo0, elo1, SPRT_ERROR, SPRT_ERROR);
+            decided = decision != MatchScore.CONTINUE;
+        }
+        if (out != null && (score.getGames() % REPORT_INTERVAL == 0 || decided)) {
+            out.printf("%s  LLR %.2f [%.2f, %.2f]%n", score, score.getLogLikelihoodRatio(elo0, elo1),
+                    MatchScore.lowerBound(SPRT_ERROR, SPRT_ERROR), MatchScore.upperBound(SPRT_ERROR, SPRT_ERROR));
+        }
+    }
+
+    /**
+     * Runs a match from the command line and prints the final score, how the games ended and the SPRT decision.
+     * @param args The limits of the candidate and of the baseline, and optionally the number of games,
+     *             the layout files, the number of games played at once, the hash size, the SPRT bounds
+     *             and the seed of the random opening moves.
+     * @throws IOException If a layout file cannot be read.
+     * @throws InterruptedException If the match is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament <candidate> <baseline> [games] [layout files, comma-separated]"
+                    + " [concurrency] [hash megabytes] [elo0] [elo1] [seed]");
+            System.out.println("Limits are depth=N, nodes=N, seconds per move, or a clock as seconds+increment.");
+            return;
+        }
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        String[] layoutFiles = (args.length > 3 ? args[3] : "level1.txt").split(",");
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = args.length > 5 ? Integer.parseInt(args[5]) : 8;
+        double elo0 = args.length > 6 ? Double.parseDouble(args[6]) : 0;
+        double elo1 = args.length > 7 ? Double.parseDouble(args[7]) : 10;
+        long seed = args.length > 8 ? Long.parseLong(args[8]) : System.nanoTime();
+
+        List<Position> layouts = new ArrayList<>();
+        for (String layoutFile : layoutFiles) {
+            layouts.add(Position.fromLayout(layoutFile));
+        }
+        Tournament tournament = new Tournament(layouts, args[0], args[1], hashMegabytes, seed);
+        System.out.printf("candidate %s vs baseline %s, up to %d games from %s, %d at once, %d MB hash, SPRT %.1f vs %.1f Elo, seed %d%n",
+                args[0], args[1], games, Arrays.toString(layoutFiles), concurrency, hashMegabytes, elo0, elo1, seed);
+        long start = System.nanoTime();
+        MatchScore score = tournament.play(games, concurrency, elo0, elo1, System.out);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+
+        System.out.printf("%s  in %d s%n", score, elapsedMillis / 1000);
+        int[] terminations = tournament.getTerminations();
+        StringBuilder ends = new StringBuilder("ended by");
+        for (int i = 0; i < terminations.length; i++) {
+            ends.append(' ').append(TERMINATIONS[i]).append(' ').append(terminations[i]);
+        }
+        System.out.println(ends);
+        int decision = tournament.getDecision();
+        System.out.println("SPRT: " + (decision == MatchScore.ACCEPT_H1 ? "H1 accepted, the candidate is stronger"
+                : decision == MatchScore.ACCEPT_H0 ? "H0 accepted, the candidate is not stronger"
+                : "no decision yet, more games are needed"));
+    }
+}
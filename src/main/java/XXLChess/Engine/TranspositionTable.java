@@ -0,0 +1,255 @@
+package XXLChess.Engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The TranspositionTable class caches search results by Zobrist key so that positions reached again,
+ * by a different move order or on a later move of the game, do not have to be searched from scratch.
+ * The table is sized in megabytes and lives off-heap in direct ByteBuffers of at most one gigabyte each,
+ * so even a table of several gigabytes adds nothing for the garbage collector to trace.
+ * Entries are grouped in buckets of four that fill one 64-byte cache line. Each entry is two longs: the key XORed
+ * with the data, and the data itself, which packs the best move, the score, the depth, the bound type and the age
+ * of the search that stored it. A probe only accepts an entry if XORing its two longs gives back the probed key,
+ * so an entry torn by two threads writing at once reads as a miss, and the table can be shared by any number
+ * of search threads without locks.
+ * When a bucket is full, the entry replaced is the shallowest one, with entries from older searches counting as shallower.
+ * @see Zobrist
+ */
+public final class TranspositionTable {
+    /**
+     * The size used when the configuration does not give one.
+     */
+    public static final int DEFAULT_MEGABYTES = 64;
+    /**
+     * The entry holds no usable score, only a best move.
+     */
+    public static final int BOUND_NONE = 0;
+    /**
+     * The score is exact.
+     */
+    public static final int BOUND_EXACT = 1;
+    /**
+     * The score is a lower bound; the search failed high.
+     */
+    public static final int BOUND_LOWER = 2;
+    /**
+     * The score is an upper bound; the search failed low.
+     */
+    public static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int SEGMENT_SHIFT = 24;
+    private static final int SEGMENT_BUCKETS = 1 << SEGMENT_SHIFT;
+    private static final int AGE_MASK = 0x3F;
+
+    private static final int SCORE_SHIFT = 24;
+    private static final int DEPTH_SHIFT = 40;
+    private static final int BOUND_SHIFT = 48;
+    private static final int AGE_SHIFT = 50;
+
+    private final ByteBuffer[] segments;
+    private final long bucketCount;
+    private final int megabytes;
+    private volatile int age;
+
+    /**
+     * Constructs a table of the given size. The memory is allocated at once and starts out empty.
+     * @param megabytes The size of the table in megabytes; at least 1.
+     */
+    public TranspositionTable(int megabytes) {
+        this.megabytes = Math.max(1, megabytes);
+        this.bucketCount = ((long) this.megabytes << 20) / BUCKET_BYTES;
+        int segmentCount = (int) ((bucketCount + SEGMENT_BUCKETS - 1) >>> SEGMENT_SHIFT);
+        this.segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long buckets = Math.min(SEGMENT_BUCKETS, bucketCount - ((long) i << SEGMENT_SHIFT));
+            segments[i] = ByteBuffer.allocateDirect((int) (buckets * BUCKET_BYTES)).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Retrieves the size the table was created with.
+     * @return The size in megabytes.
+     */
+    public int getMegabytes() {
+        return megabytes;
+    }
+
+    /**
+     * Retrieves the number of entries the table can hold.
+     * @return The capacity in entries.
+     */
+    public long capacity() {
+        return bucketCount * BUCKET_ENTRIES;
+    }
+
+    /**
+     * Empties the table. Must not be called while a search is using it.
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int offset = 0; offset < segment.capacity(); offset += Long.BYTES) {
+                segment.putLong(offset, 0);
+            }
+        }
+        age = 0;
+    }
+
+    /**
+     * Starts a new search. Entries stored by earlier searches stay usable but are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key The Zobrist key of the position.
+     * @return The packed entry data, to be read with move, score, depth and bound, or 0 if the position is not stored.
+     */
+    public long probe(long key) {
+        long bucket = bucketIndex(key);
+        ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+        int base = (int) (bucket & (SEGMENT_BUCKETS - 1)) * BUCKET_BYTES;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = base + i * ENTRY_BYTES;
+            long data = segment.getLong(offset + Long.BYTES);
+            if (data != 0 && (segment.getLong(offset) ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result.
+     * An existing entry for the same position is overwritten unless it was searched clearly deeper
+     * by the current search and the new score is not exact; its best move is kept if the new result has none.
+     * Otherwise the bucket entry with the least depth, counting older searches as shallower, is replaced.
+     * @param key The Zobrist key of the position.
+     * @param move The best move found, or Move.NONE.
+     * @param score The score, which must fit in 16 bits.
+     * @param depth The depth searched; clamped to 0..255.
+     * @param bound One of BOUND_EXACT, BOUND_LOWER, BOUND_UPPER or BOUND_NONE.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long bucket = bucketIndex(key);
+        ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+        int base = (int) (bucket & (SEGMENT_BUCKETS - 1)) * BUCKET_BYTES;
+        int currentAge = age;
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = base + i * ENTRY_BYTES;
+            long data = segment.getLong(offset + Long.BYTES);
+            if (data == 0) {
+                if (victimWorth > Integer.MIN_VALUE) {
+                    victim = offset;
+                    victimWorth = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((segment.getLong(offset) ^ data) == key) {
+                if (bound != BOUND_EXACT && age(data) == currentAge && depth + 2 < depth(data)) {
+                    return;
+                }
+                if (move == Move.NONE) {
+                    move = move(data);
+                }
+                victim = offset;
+                break;
+            }
+            int worth = depth(data) - 8 * ((currentAge - age(data)) & AGE_MASK);
+            if (worth < victimWorth) {
+                victim = offset;
+                victimWorth = worth;
+            }
+        }
+        long data = pack(move, score, depth, bound, currentAge);
+        segment.putLong(victim, key ^ data);
+        segment.putLong(victim + Long.BYTES, data);
+    }
+
+    /**
+     * Estimates how full the table is with entries from the current search, by sampling the first thousand buckets.
+     * @return The fill rate in permille.
+     */
+    public int hashfull() {
+        int currentAge = age;
+        int used = 0;
+        int sampled = 0;
+        for (long bucket = 0; bucket < Math.min(1000, bucketCount); bucket++) {
+            ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+            int base = (int) (bucket & (SEGMENT_BUCKETS - 1)) * BUCKET_BYTES;
+            for (int i = 0; i < BUCKET_ENTRIES; i++) {
+                long data = segment.getLong(base + i * ENTRY_BYTES + Long.BYTES);
+                if (data != 0 && age(data) == currentAge) {
+                    used++;
+                }
+                sampled++;
+            }
+        }
+        return sampled == 0 ? 0 : used * 1000 / sampled;
+    }
+
+    /**
+     * Maps a key to a bucket by scaling its upper 32 bits to the bucket count, which needs no division
+     * and works for bucket counts that are not powers of two.
+     */
+    private long bucketIndex(long key) {
+        return ((key >>> 32) * bucketCount) >>> 32;
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        int clampedDepth = Math.max(0, Math.min(255, depth));
+        return (move & 0xFFFFFFL)
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) clampedDepth << DEPTH_SHIFT)
+                | ((long) (bound & 3) << BOUND_SHIFT)
+                | ((long) (age & AGE_MASK) << AGE_SHIFT)
+                | (1L << 63);
+    }
+
+    /**
+     * Retrieves the best move of a probed entry.
+     * @param data The packed entry data returned by probe.
+     * @return The packed move, or Move.NONE.
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFFFF);
+    }
+
+    /**
+     * Retrieves the score of a probed entry.
+     * @param data The packed entry data returned by probe.
+     * @return The stored score.
+     */
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    /**
+     * Retrieves the depth of a probed entry.
+     * @param data The packed entry data returned by probe.
+     * @return The depth the entry was searched to.
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Retrieves the bound type of a probed entry.
+     * @param data The packed entry data returned by probe.
+     * @return One of BOUND_EXACT, BOUND_LOWER, BOUND_UPPER or BOUND_NONE.
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+}
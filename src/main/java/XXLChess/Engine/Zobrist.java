@@ -0,0 +1,84 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+
+/**
+ * The Zobrist class holds the random 64-bit keys used to hash XXLChess positions.
+ * There is one key for every combination of PieceColor, PieceType and square, one for every square whose piece
+ * has not moved yet (which covers castling rights and the pawn double step), and one for black to move.
+ * The hash of a position is the XOR of the keys of everything in it, so placing or removing a piece,
+ * or passing the turn, updates the hash with a single XOR.
+ * The keys are generated from a fixed seed, so a hash means the same position in every run of the program.
+ * @see Position#getKey()
+ */
+public final class Zobrist {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long[][][] PIECES = new long[Position.COLORS.length][Position.TYPES.length][Position.SQUARES];
+    private static final long[] UNMOVED = new long[Position.SQUARES];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long state = SEED;
+        for (long[][] byType : PIECES) {
+            for (long[] bySquare : byType) {
+                for (int square = 0; square < bySquare.length; square++) {
+                    state += SEED;
+                    bySquare[square] = mix(state);
+                }
+            }
+        }
+        for (int square = 0; square < UNMOVED.length; square++) {
+            state += SEED;
+            UNMOVED[square] = mix(state);
+        }
+        state += SEED;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Scrambles a counter into a well-distributed 64-bit value (the SplitMix64 finaliser).
+     * @param z The counter value.
+     * @return The scrambled value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Retrieves the key of a piece standing on a square.
+     * @param color The color of the piece.
+     * @param type The type of the piece.
+     * @param square The square index.
+     * @return The piece key.
+     */
+    public static long piece(PieceColor color, PieceType type, int square) {
+        return PIECES[color.ordinal()][type.ordinal()][square];
+    }
+
+    static long piece(int color, int type, int square) {
+        return PIECES[color][type][square];
+    }
+
+    /**
+     * Retrieves the key that marks the piece on a square as not having moved yet.
+     * @param square The square index.
+     * @return The unmoved key.
+     */
+    public static long unmoved(int square) {
+        return UNMOVED[square];
+    }
+
+    /**
+     * Retrieves the key that is present in the hash when black is to move.
+     * @return The side-to-move key.
+     */
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
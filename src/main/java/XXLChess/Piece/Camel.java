@@ -1,6 +1,8 @@
 package XXLChess.Piece;
 
 import XXLChess.*;
+import XXLChess.Engine.Attacks;
+import XXLChess.Engine.Position;
 
 import java.util.List;
 
@@ -33,11 +35,13 @@ public class Camel extends Piece {
      * @param x The x-coordinate of the piece.
      * @param y The y-coordinate of the piece.
      * @param board The game board.
+     * The destinations come from the precomputed Camel table, masked by the squares of friendly pieces.
      * @return A list of legal moves as int arrays [startX, startY, endX, endY].
+     * @see Attacks#camelAttacks(int)
      */
     @Override
     public List<int[]> getLegalMoves(int x, int y, Board board) {
-        return getCamelMoves(x, y, board);
+        return board.getMovesFromAttacks(Attacks.camelAttacks(Position.square(x, y)), getColor());
     }
 }
 
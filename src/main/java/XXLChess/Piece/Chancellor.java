@@ -1,8 +1,10 @@
 package XXLChess.Piece;
 
 import XXLChess.*;
+import XXLChess.Engine.Attacks;
+import XXLChess.Engine.Bitboard;
+import XXLChess.Engine.Position;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -39,16 +41,15 @@ public class Chancellor extends Piece {
      */
     @Override
     public List<int[]> getLegalMoves(int x, int y, Board board) {
+            int square = Position.square(x, y);
 
-            List<int[]> legalMoves = new ArrayList<>();
+            // Rook moves from the precomputed ray tables
+            Bitboard attacks = Attacks.rookAttacks(square, board.getPosition().getOccupied(), new Bitboard());
 
-            // Add knight moves
-            legalMoves.addAll(getKnightMoves(x, y, board));
+            // Add knight moves from the precomputed leaper table
+            attacks.or(Attacks.knightAttacks(square));
 
-            // Add rook moves
-            legalMoves.addAll(getMoveHorizontalAndVerticalLines(x, y, board));
-
-            return legalMoves;
+            return board.getMovesFromAttacks(attacks, getColor());
 
     }
 }
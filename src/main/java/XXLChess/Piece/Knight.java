@@ -1,6 +1,8 @@
 package XXLChess.Piece;
 
 import XXLChess.*;
+import XXLChess.Engine.Attacks;
+import XXLChess.Engine.Position;
 
 import java.util.List;
 
@@ -34,11 +36,13 @@ public class Knight extends Piece {
      * @param x The x-coordinate of the Knight's position.
      * @param y The y-coordinate of the Knight's position.
      * @param board The game board.
+     * The destinations come from the precomputed Knight table, masked by the squares of friendly pieces.
      * @return A list of legal moves as int arrays, where each array contains the x and y coordinates of the target position.
+     * @see Attacks#knightAttacks(int)
      */
     @Override
     public List<int[]> getLegalMoves(int x, int y, Board board) {
-        return getKnightMoves(x, y, board);
+        return board.getMovesFromAttacks(Attacks.knightAttacks(Position.square(x, y)), getColor());
     }
 }
 
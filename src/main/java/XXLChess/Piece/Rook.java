@@ -1,6 +1,9 @@
 package XXLChess.Piece;
 
 import XXLChess.*;
+import XXLChess.Engine.Attacks;
+import XXLChess.Engine.Bitboard;
+import XXLChess.Engine.Position;
 
 import java.util.List;
 
@@ -31,14 +34,16 @@ public class Rook extends Piece {
 
     /**
      * Retrieves a list of legal moves for the rook piece at the specified position on the chessboard.
-     * The legal moves include horizontal and vertical moves.
+     * The legal moves include horizontal and vertical moves, looked up from the precomputed ray tables.
      * @param x the x-coordinate of the piece's position
      * @param y the y-coordinate of the piece's position
      * @param board the chessboard on which the piece is located
      * @return a list of integer arrays representing the legal moves for the rook
+     * @see Attacks#rookAttacks(int, Bitboard, Bitboard)
      */
     @Override
     public List<int[]> getLegalMoves(int x, int y, Board board) {
-        return getMoveHorizontalAndVerticalLines(x, y, board);
+        Bitboard attacks = Attacks.rookAttacks(Position.square(x, y), board.getPosition().getOccupied(), new Bitboard());
+        return board.getMovesFromAttacks(attacks, getColor());
     }
 }
\ No newline at end of file
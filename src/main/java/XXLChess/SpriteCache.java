@@ -0,0 +1,117 @@
+package XXLChess;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SpriteCache class holds the piece images of the whole process, one per piece type and color.
+ * Every PNG is decoded once, scaled down to the size of a tile and copied into a single atlas image,
+ * with a column per piece type and a row per color. Tiles and moving pieces are drawn straight from the atlas,
+ * so the renderer binds one texture for all the pieces on the board.
+ * Each (PieceType, PieceColor) also has a small sprite cut from the atlas, which App hands out whenever
+ * an image path of a piece is loaded. Pieces created on setup, on every restart and on promotion therefore
+ * share those sprites instead of decoding the same PNG again, and a promotion no longer reads from disk mid-frame.
+ * The cache is built on the first call to load and kept for the rest of the process.
+ * @see PieceType#getImagePath(PieceColor)
+ * @see App#loadImage(String)
+ */
+public final class SpriteCache {
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final PieceColor[] COLORS = PieceColor.values();
+    private static SpriteCache instance;
+
+    private final int cellSize;
+    private final PImage atlas;
+    private final PImage[] sprites = new PImage[TYPES.length * COLORS.length];
+    private final Map<String, PImage> spritesByPath = new HashMap<>();
+
+    private SpriteCache(PApplet app, int cellSize) {
+        this.cellSize = cellSize;
+        this.atlas = app.createImage(TYPES.length * cellSize, COLORS.length * cellSize, PConstants.ARGB);
+        for (PieceColor color : COLORS) {
+            for (PieceType type : TYPES) {
+                String path = type.getImagePath(color);
+                PImage source = app.loadImage(path);
+                int u = type.ordinal() * cellSize;
+                int v = color.ordinal() * cellSize;
+                if (source != null) {
+                    atlas.copy(source, 0, 0, source.width, source.height, u, v, cellSize, cellSize);
+                }
+                PImage sprite = atlas.get(u, v, cellSize, cellSize);
+                sprites[index(type, color)] = sprite;
+                spritesByPath.put(path, sprite);
+            }
+        }
+    }
+
+    /**
+     * Builds the process-wide cache on the first call and returns it; later calls return the same cache.
+     * @param app The application used to decode the images.
+     * @param cellSize The size of a tile in pixels, which every sprite is scaled to on the first call.
+     * @return The sprite cache.
+     */
+    public static synchronized SpriteCache load(PApplet app, int cellSize) {
+        if (instance == null) {
+            instance = new SpriteCache(app, cellSize);
+        }
+        return instance;
+    }
+
+    /**
+     * Retrieves the process-wide cache.
+     * @return The sprite cache, or null if load has not been called yet.
+     */
+    public static synchronized SpriteCache get() {
+        return instance;
+    }
+
+    /**
+     * Retrieves the shared sprite of a piece.
+     * @param type The type of the piece.
+     * @param color The color of the piece.
+     * @return The sprite, scaled to the tile size.
+     */
+    public PImage getSprite(PieceType type, PieceColor color) {
+        return sprites[index(type, color)];
+    }
+
+    /**
+     * Retrieves the shared sprite stored under an image path of a piece.
+     * @param imagePath The path, as returned by PieceType#getImagePath.
+     * @return The sprite, or null if the path is not the image of a piece.
+     */
+    public PImage getSprite(String imagePath) {
+        return spritesByPath.get(imagePath);
+    }
+
+    /**
+     * Retrieves the atlas holding every sprite.
+     * @return The atlas image, a column per piece type and a row per color.
+     */
+    public PImage getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Draws a piece from the atlas.
+     * @param app The application to draw on.
+     * @param type The type of the piece.
+     * @param color The color of the piece.
+     * @param x The x-coordinate of the top left corner, in pixels.
+     * @param y The y-coordinate of the top left corner, in pixels.
+     * @param size The width and height to draw the piece with, in pixels.
+     */
+    public void draw(PApplet app, PieceType type, PieceColor color, int x, int y, int size) {
+        int u = type.ordinal() * cellSize;
+        int v = color.ordinal() * cellSize;
+        app.image(atlas, x, y, size, size, u, v, u + cellSize, v + cellSize);
+    }
+
+    private static int index(PieceType type, PieceColor color) {
+        return type.ordinal() * COLORS.length + color.ordinal();
+    }
+}
@@ -1,12 +1,16 @@
 package XXLChess;
 
 import XXLChess.Piece.Piece;
+import processing.core.PGraphics;
+import processing.core.PImage;
 
 import static XXLChess.App.CELLSIZE;
 
 /**
  * The Tile class represents a single tile on the chessboard in the XXLChess game.
  * It contains information about its position, size, color, and the piece located on it.
+ * A Tile is a rendering view of its square; the logical state of the game lives in the Board's Position.
+ * A Tile remembers whether it has changed since it was last drawn, so the Board only redraws the tiles that are dirty.
  */
 public class Tile {
     private int x;
@@ -15,6 +19,7 @@ public class Tile {
     private boolean isBlack;
     private Piece piece;
     private App app;
+    private Board board;
 
     private int offsetX = 0;
     private int offsetY = 0;
@@ -26,6 +31,8 @@ public class Tile {
     private int highlightedG;
     private int highlightedB;
 
+    private boolean dirty = true;
+
     /**
      * Creates a tile object.
      * The constructor initializes the tile with the specified parameters, including the application instance,
@@ -46,13 +53,28 @@ public class Tile {
         this.isHighlight = false;
     }
 
+    /**
+     * Draws the background of the tile, without highlight or piece, into the static layer of the board.
+     * @param layer The offscreen layer of the board, between beginDraw and endDraw.
+     * @see Board#draw(boolean)
+     */
+    void drawBackground(PGraphics layer) {
+        if (isBlack) {
+            layer.fill(180, 135, 100);
+        } else {
+            layer.fill(240, 220, 180);
+        }
+        layer.rect(x, y, size, size);
+    }
+
     /**
      * Draws the tile on the chessboard.
      * The draw() method is responsible for rendering the appearance of the tile on the chessboard.
      * It sets the stroke weight to 0 to remove any border around the tile.
      * The fill color is determined based on the tile's properties: highlighted state or color (black or white).
      * The tile is then drawn as a rectangle using the specified position (x, y) and size.
-     * If the tile contains a piece, the piece is also drawn within the tile.
+     * If the tile contains a piece, the piece is also drawn within the tile, from the shared sprite atlas once it is loaded.
+     * @see SpriteCache#draw(processing.core.PApplet, PieceType, PieceColor, int, int, int)
      * @see Piece#draw(int, int, int) for drawing the piece within the tile.
      */
     public void draw() {
@@ -68,12 +90,56 @@ public class Tile {
             app.fill(240, 220, 180);
         }
         app.rect(x, y, size, size);
+        drawPiece();
+        app.popStyle();
+        dirty = false;
+    }
 
+    /**
+     * Draws the tile on top of the static layer of the board.
+     * Unless the tile is highlighted, its background is copied from the layer rather than filled again,
+     * which also wipes whatever was drawn over the tile on an earlier frame, such as an animated piece.
+     * @param layer The static layer of the board, holding the background of every tile at its pixel position.
+     * @param background Whether the background has to be restored, false if the layer has just been drawn whole.
+     */
+    void draw(PImage layer, boolean background) {
+        if (isHighlight) {
+            app.pushStyle();
+            app.noStroke();
+            app.fill(highlightedR, highlightedG, highlightedB);
+            app.rect(x, y, size, size);
+            app.popStyle();
+        } else if (background) {
+            app.image(layer, x, y, size, size, x, y, x + size, y + size);
+        }
+        drawPiece();
+        dirty = false;
+    }
+
+    private void drawPiece() {
         if (piece != null) {
-            piece.draw(x, y, size);
+            SpriteCache sprites = SpriteCache.get();
+            if (sprites != null) {
+                sprites.draw(app, piece.getType(), piece.getColor(), x, y, size);
+            } else {
+                piece.draw(x, y, size);
+            }
         }
+    }
 
-        app.popStyle();
+    /**
+     * Checks whether the tile has changed since it was last drawn.
+     * @return true if the tile has to be redrawn.
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks the tile to be redrawn on the next frame, for example because something was drawn over it.
+     */
+    void markDirty() {
+        dirty = true;
     }
 
     /**
@@ -86,23 +152,62 @@ public class Tile {
 
     /**
      * Sets the piece on the tile.
+     * If the tile belongs to a Board, the Board's Position is updated as well so the logical state stays in sync.
      * @param piece The piece to be set on the tile. Set to null to remove the piece from the tile.
+     * @see Board#syncSquare(int, int, Piece)
      */
     public void setPiece(Piece piece) {
         this.piece = piece;
+        this.dirty = true;
+        if (board != null) {
+            board.syncSquare(getX(), getY(), piece);
+        }
+    }
+
+    /**
+     * Sets the piece that is drawn on the tile without touching the logical state of the Board.
+     * The Board uses this while animating a move, when the piece has already left the tile logically.
+     * @param piece The piece to be drawn on the tile, or null to draw an empty tile.
+     */
+    void showPiece(Piece piece) {
+        this.piece = piece;
+        this.dirty = true;
+    }
+
+    /**
+     * Attaches the tile to the Board that owns it.
+     * @param board The Board the tile belongs to.
+     */
+    void setBoard(Board board) {
+        this.board = board;
     }
 
     /**
      * Draws a highlight on the tile with the specified RGB color values.
+     * The tile is only marked dirty if the highlight actually changes, so it can be set again on every frame.
      * @param R The red component of the highlight color (0-255).
      * @param G The green component of the highlight color (0-255).
      * @param B The blue component of the highlight color (0-255).
      */
     public void drawHighlight(int R, int G, int B) {
+        if (isHighlight && highlightedR == R && highlightedG == G && highlightedB == B) {
+            return;
+        }
         this.highlightedR = R;
         this.highlightedG = G;
         this.highlightedB = B;
         isHighlight = true;
+        dirty = true;
+    }
+
+    /**
+     * Removes the highlight from the tile, marking it dirty if it was highlighted.
+     */
+    public void clearHighlight() {
+        if (isHighlight) {
+            isHighlight = false;
+            dirty = true;
+        }
     }
 
     /**
@@ -0,0 +1,37 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AITest {
+
+    @Test
+    void searchCancelledRightAfterStartingDoesNotHoldUpTheNext() throws IOException, InterruptedException {
+        Position position = Position.fromLayout("level1.txt");
+        AI ai = new AI(PieceColor.WHITE, new TranspositionTable(1), 1);
+        try {
+            for (int i = 0; i < 20; i++) {
+                ai.startThinking(position, 10 * 60 * 1000L, 0);
+                ai.cancel();
+                assertFalse(ai.isThinking());
+                assertEquals(AI.PENDING, ai.pollMove());
+
+                ai.startThinking(position, 1000, 0);
+                long deadline = System.nanoTime() + 5_000_000_000L;
+                int move = AI.PENDING;
+                while (move == AI.PENDING && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                    move = ai.pollMove();
+                }
+                assertNotEquals(AI.PENDING, move, "no move within 5 s of a cancelled search");
+                assertNotEquals(Move.NONE, move);
+            }
+        } finally {
+            ai.shutdown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttacksTest {
+
+    @Test
+    void leapersFromCorner() {
+        int corner = Position.square(0, 0);
+        assertEquals(2, Attacks.knightAttacks(corner).cardinality());
+        assertEquals(2, Attacks.camelAttacks(corner).cardinality());
+        assertEquals(3, Attacks.kingAttacks(corner).cardinality());
+        assertEquals(5, Attacks.generalAttacks(corner).cardinality());
+    }
+
+    @Test
+    void leapersFromCentre() {
+        int centre = Position.square(6, 7);
+        assertEquals(8, Attacks.knightAttacks(centre).cardinality());
+        assertEquals(8, Attacks.camelAttacks(centre).cardinality());
+        assertEquals(16, Attacks.generalAttacks(centre).cardinality());
+        assertTrue(Attacks.camelAttacks(centre).get(Position.square(7, 10)));
+    }
+
+    @Test
+    void pawnAttacks() {
+        int square = Position.square(0, 12);
+        assertEquals(1, Attacks.pawnAttacks(PieceColor.WHITE, square).cardinality());
+        assertTrue(Attacks.pawnAttacks(PieceColor.WHITE, square).get(Position.square(1, 11)));
+        assertTrue(Attacks.pawnAttacks(PieceColor.BLACK, square).get(Position.square(1, 13)));
+    }
+
+    @Test
+    void rookStopsAtBlockers() {
+        Bitboard occupied = new Bitboard().set(Position.square(3, 6)).set(Position.square(10, 3));
+        Bitboard attacks = Attacks.rookAttacks(Position.square(3, 3), occupied, new Bitboard());
+        assertTrue(attacks.get(Position.square(3, 6)));
+        assertFalse(attacks.get(Position.square(3, 7)));
+        assertTrue(attacks.get(Position.square(10, 3)));
+        assertFalse(attacks.get(Position.square(11, 3)));
+        assertEquals(3 + 3 + 3 + 7, attacks.cardinality());
+    }
+
+    @Test
+    void bishopOnEmptyBoard() {
+        Bitboard attacks = Attacks.bishopAttacks(Position.square(0, 0), Bitboard.EMPTY, new Bitboard());
+        assertEquals(13, attacks.cardinality());
+        assertTrue(attacks.get(Position.square(13, 13)));
+    }
+}
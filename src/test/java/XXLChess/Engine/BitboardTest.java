@@ -0,0 +1,56 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitboardTest {
+
+    @Test
+    void setAndClearAcrossWords() {
+        Bitboard bitboard = new Bitboard();
+        bitboard.set(0).set(63).set(64).set(195);
+        assertEquals(4, bitboard.cardinality());
+        assertTrue(bitboard.get(64));
+        bitboard.clear(64);
+        assertFalse(bitboard.get(64));
+        assertEquals(0, bitboard.lowest());
+        assertEquals(195, bitboard.highest());
+    }
+
+    @Test
+    void popLowest() {
+        Bitboard bitboard = new Bitboard().set(130).set(5).set(70);
+        assertEquals(5, bitboard.popLowest());
+        assertEquals(70, bitboard.popLowest());
+        assertEquals(130, bitboard.popLowest());
+        assertEquals(-1, bitboard.popLowest());
+        assertTrue(bitboard.isEmpty());
+    }
+
+    @Test
+    void nextSetBit() {
+        Bitboard bitboard = new Bitboard().set(3).set(128).set(191);
+        assertEquals(3, bitboard.nextSetBit(0));
+        assertEquals(128, bitboard.nextSetBit(4));
+        assertEquals(191, bitboard.nextSetBit(129));
+        assertEquals(-1, bitboard.nextSetBit(192));
+    }
+
+    @Test
+    void positionOccupancy() {
+        Position position = new Position();
+        int square = Position.square(13, 13);
+        position.put(square, PieceType.ROOK, PieceColor.WHITE, false);
+        assertFalse(position.isEmpty(square));
+        assertTrue(position.isOccupiedBy(square, PieceColor.WHITE));
+        assertEquals(PieceType.ROOK, position.getType(square));
+
+        position.move(square, Position.square(13, 0));
+        assertTrue(position.isEmpty(square));
+        assertTrue(position.hasMoved(Position.square(13, 0)));
+        assertEquals(1, position.getOccupied().cardinality());
+    }
+}
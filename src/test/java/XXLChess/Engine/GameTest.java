@@ -0,0 +1,62 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTest {
+
+    @Test
+    void playsAndTakesBackMovesWithoutAWindow() throws IOException {
+        Game game = Game.fromLayout("level1.txt");
+        long key = game.getPosition().getKey();
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        game.play(moves.get(0));
+        assertEquals(PieceColor.BLACK, game.getSideToMove());
+        assertEquals(1, game.getPly());
+        assertThrows(IllegalArgumentException.class, () -> game.play(moves.get(0)));
+
+        game.undo();
+        assertEquals(key, game.getPosition().getKey());
+        assertThrows(IllegalStateException.class, game::undo);
+    }
+
+    @Test
+    void detectsCheckmateAfterTheAIMates() {
+        Position start = new Position();
+        start.put(Position.square(0, 13), PieceType.KING, PieceColor.WHITE, true);
+        start.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, true);
+        start.put(Position.square(5, 12), PieceType.ROOK, PieceColor.BLACK, true);
+        start.put(Position.square(6, 3), PieceType.ROOK, PieceColor.BLACK, true);
+        start.setSideToMove(PieceColor.BLACK);
+        Game game = new Game(start);
+
+        AI ai = new AI(PieceColor.BLACK, new TranspositionTable(1), 1);
+        game.play(ai.getMove(game.getPosition(), TimeManager.fixedDepth(3)));
+        ai.shutdown();
+        assertTrue(game.isCheckmate(PieceColor.WHITE));
+        assertFalse(game.isStalemate());
+    }
+
+    @Test
+    void evaluatesStalemateOnceForTheSideToMove() {
+        Position start = new Position();
+        start.put(Position.square(0, 13), PieceType.KING, PieceColor.WHITE, true);
+        start.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, true);
+        start.put(Position.square(1, 11), PieceType.QUEEN, PieceColor.BLACK, true);
+        Game game = new Game(start);
+
+        GameStatus status = game.evaluateStatus();
+        assertEquals(PieceColor.WHITE, status.getSideToMove());
+        assertFalse(status.isAnyInCheck());
+        assertEquals(0, status.getLegalMoveCount());
+        assertTrue(status.isStalemate());
+        assertFalse(status.isCheckmate(PieceColor.WHITE));
+        assertTrue(status.isGameOver());
+    }
+}
@@ -0,0 +1,107 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+
+    @Test
+    void pinnedPieceMovesAlongPin() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, false);
+        position.put(Position.square(7, 10), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(7, 2), PieceType.CHANCELLOR, PieceColor.BLACK, true);
+
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegalPieceMoves(position, Position.square(7, 10), moves);
+        assertEquals(10, moves.size());
+        assertNotEquals(Move.NONE, moves.find(Position.square(7, 10), Position.square(7, 2)));
+        assertEquals(Move.NONE, moves.find(Position.square(7, 10), Position.square(6, 10)));
+    }
+
+    @Test
+    void legalMovesMatchFilteredPseudoLegalMoves() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, false);
+        position.put(Position.square(13, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(0, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(3, 12), PieceType.KNIGHT, PieceColor.WHITE, true);
+        position.put(Position.square(9, 11), PieceType.PAWN, PieceColor.WHITE, false);
+        position.put(Position.square(2, 8), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(10, 6), PieceType.ROOK, PieceColor.BLACK, true);
+        position.put(Position.square(12, 8), PieceType.CAMEL, PieceColor.BLACK, true);
+
+        assertSameLegalMoves(position);
+        assertEquals(Move.NONE, legalMoves(position).find(Position.square(7, 13), Position.square(11, 13)));
+        assertTrue(Move.isCastling(legalMoves(position).find(Position.square(7, 13), Position.square(3, 13))));
+    }
+
+    @Test
+    void noCastlingOutOfCheck() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, false);
+        position.put(Position.square(13, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(0, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(7, 0), PieceType.ROOK, PieceColor.BLACK, true);
+
+        assertSameLegalMoves(position);
+        MoveList legal = legalMoves(position);
+        assertEquals(Move.NONE, legal.find(Position.square(7, 13), Position.square(11, 13)));
+        assertEquals(Move.NONE, legal.find(Position.square(7, 13), Position.square(3, 13)));
+    }
+
+    @Test
+    void noCastlingThroughAttackedSquare() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, false);
+        position.put(Position.square(13, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(0, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(9, 0), PieceType.ROOK, PieceColor.BLACK, true);
+
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegalPieceMoves(position, Position.square(7, 13), moves);
+        assertEquals(Move.NONE, moves.find(Position.square(7, 13), Position.square(11, 13)));
+        assertTrue(Move.isCastling(moves.find(Position.square(7, 13), Position.square(3, 13))));
+    }
+
+    @Test
+    void evasionsBlockCaptureOrStepAside() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, false);
+        position.put(Position.square(8, 12), PieceType.PAWN, PieceColor.WHITE, false);
+        position.put(Position.square(3, 11), PieceType.PAWN, PieceColor.WHITE, false);
+        position.put(Position.square(0, 12), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(12, 0), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(13, 7), PieceType.KNIGHT, PieceColor.WHITE, true);
+        position.put(Position.square(0, 6), PieceType.BISHOP, PieceColor.BLACK, true);
+
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateEvasions(position, PieceColor.WHITE, moves);
+        // King to (6,13), (8,13) or (7,12); Rook captures on (0,6) or blocks on (6,12); Pawn double steps to (3,9).
+        assertEquals(6, moves.size());
+        assertTrue(Move.isCapture(moves.find(Position.square(0, 12), Position.square(0, 6))));
+        assertNotEquals(Move.NONE, moves.find(Position.square(0, 12), Position.square(6, 12)));
+        assertEquals(Move.DOUBLE_STEP, Move.flags(moves.find(Position.square(3, 11), Position.square(3, 9))));
+    }
+
+    private static MoveList legalMoves(Position position) {
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegal(position, PieceColor.WHITE, moves);
+        return moves;
+    }
+
+    private static void assertSameLegalMoves(Position position) {
+        MoveGenerator generator = new MoveGenerator();
+        MoveList legal = legalMoves(position);
+        MoveList filtered = new MoveList();
+        generator.generate(position, PieceColor.WHITE, filtered);
+        generator.filterLegal(position, filtered);
+        assertEquals(legal.size(), filtered.size());
+        for (int i = 0; i < legal.size(); i++) {
+            assertTrue(filtered.contains(legal.get(i)), Move.toString(legal.get(i)));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovePickerTest {
+
+    @Test
+    void picksInStages() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, true);
+        position.put(Position.square(3, 10), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(9, 9), PieceType.PAWN, PieceColor.WHITE, true);
+        position.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, true);
+        position.put(Position.square(3, 4), PieceType.PAWN, PieceColor.BLACK, true);
+        position.put(Position.square(10, 8), PieceType.AMAZON, PieceColor.BLACK, true);
+        position.put(Position.square(8, 8), PieceType.KNIGHT, PieceColor.BLACK, true);
+
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegal(position, PieceColor.WHITE, moves);
+        int size = moves.size();
+        int tableMove = moves.find(Position.square(3, 10), Position.square(3, 11));
+        int killer = moves.find(Position.square(7, 13), Position.square(6, 12));
+        int[][] history = new int[Position.TYPES.length][Position.SQUARES];
+        history[PieceType.ROOK.ordinal()][Position.square(0, 10)] = 500;
+
+        MovePicker picker = new MovePicker();
+        picker.init(position, moves, tableMove, killer, Move.NONE, history);
+        assertEquals(tableMove, picker.next());
+        assertEquals(Move.of(Position.square(9, 9), Position.square(10, 8), PieceType.AMAZON, 0), picker.next());
+        assertEquals(Move.of(Position.square(9, 9), Position.square(8, 8), PieceType.KNIGHT, 0), picker.next());
+        assertEquals(Move.of(Position.square(3, 10), Position.square(3, 4), PieceType.PAWN, 0), picker.next());
+        assertEquals(killer, picker.next());
+        assertEquals(Move.of(Position.square(3, 10), Position.square(0, 10), null, 0), picker.next());
+        int picked = 6;
+        while (picker.next() != Move.NONE) {
+            picked++;
+        }
+        assertEquals(size, picked);
+    }
+}
@@ -0,0 +1,38 @@
+package XXLChess.Engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    @Test
+    void depthOneCountsLegalMoves() throws IOException {
+        Position position = Position.fromLayout("level1.txt");
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegal(position, position.getSideToMove(), moves);
+        assertEquals(moves.size(), new Perft(0).count(position, 1, null));
+        assertEquals(1, new Perft(0).count(position, 0, null));
+    }
+
+    @Test
+    void parallelAndCachedCountsMatchSequential() throws IOException {
+        Position position = Position.fromLayout("level1.txt");
+        long key = position.getKey();
+        long expected = new Perft(0).count(position, 3, null);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        assertEquals(expected, new Perft(1).count(position, 3, pool));
+        MoveList rootMoves = new MoveList();
+        long total = 0;
+        for (long count : new Perft(0).divide(position, 3, pool, rootMoves)) {
+            total += count;
+        }
+        pool.shutdown();
+        assertEquals(expected, total);
+        assertEquals(key, position.getKey());
+    }
+}
@@ -0,0 +1,117 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionTest {
+    private Position position;
+    private MoveGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        position = new Position();
+        generator = new MoveGenerator();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, false);
+        position.put(Position.square(13, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(0, 13), PieceType.ROOK, PieceColor.WHITE, false);
+        position.put(Position.square(3, 7), PieceType.PAWN, PieceColor.WHITE, true);
+        position.put(Position.square(4, 6), PieceType.CAMEL, PieceColor.BLACK, false);
+        position.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, false);
+    }
+
+    @Test
+    void makeAndUnmakeRestoresEveryMove() {
+        MoveList moves = new MoveList();
+        generator.generate(position, PieceColor.WHITE, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            Bitboard occupied = new Bitboard(position.getOccupied());
+            Bitboard unmoved = new Bitboard(position.getUnmoved());
+            position.makeMove(moves.get(i));
+            assertEquals(PieceColor.BLACK, position.getSideToMove());
+            position.unmakeMove();
+            assertEquals(occupied, position.getOccupied());
+            assertEquals(unmoved, position.getUnmoved());
+            assertEquals(PieceColor.WHITE, position.getSideToMove());
+        }
+        assertEquals(0, position.getUndoDepth());
+    }
+
+    @Test
+    void castlingMovesTheRook() {
+        int castle = Move.of(Position.square(7, 13), Position.square(11, 13), null, Move.CASTLING);
+        position.makeMove(castle);
+        assertEquals(PieceType.KING, position.getType(Position.square(11, 13)));
+        assertEquals(PieceType.ROOK, position.getType(Position.square(10, 13)));
+        assertTrue(position.isEmpty(Position.square(13, 13)));
+        position.unmakeMove();
+        assertEquals(PieceType.ROOK, position.getType(Position.square(13, 13)));
+        assertFalse(position.hasMoved(Position.square(13, 13)));
+        assertFalse(position.hasMoved(Position.square(7, 13)));
+    }
+
+    @Test
+    void promotingCaptureIsUndone() {
+        int capture = Move.of(Position.square(3, 7), Position.square(4, 6), PieceType.CAMEL, Move.PROMOTION);
+        position.makeMove(capture);
+        assertEquals(PieceType.QUEEN, position.getType(Position.square(4, 6)));
+        assertEquals(PieceColor.WHITE, position.getColor(Position.square(4, 6)));
+        position.unmakeMove();
+        assertEquals(PieceType.PAWN, position.getType(Position.square(3, 7)));
+        assertEquals(PieceType.CAMEL, position.getType(Position.square(4, 6)));
+        assertFalse(position.hasMoved(Position.square(4, 6)));
+    }
+
+    @Test
+    void zobristKeyIsIncremental() {
+        long start = position.getKey();
+        assertEquals(position.computeKey(), start);
+        MoveList moves = new MoveList();
+        generator.generate(position, PieceColor.WHITE, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            position.makeMove(moves.get(i));
+            assertNotEquals(start, position.getKey());
+            assertEquals(position.computeKey(), position.getKey());
+            position.unmakeMove();
+            assertEquals(start, position.getKey());
+        }
+        position.setSideToMove(PieceColor.BLACK);
+        assertEquals(start ^ Zobrist.blackToMove(), position.getKey());
+    }
+
+    @Test
+    void pieceListsFollowEveryMove() {
+        int promotion = Move.of(Position.square(3, 7), Position.square(4, 6), PieceType.CAMEL, Move.PROMOTION);
+        position.makeMove(promotion);
+        assertEquals(0, position.getPieceCount(PieceType.PAWN, PieceColor.WHITE));
+        assertEquals(0, position.getPieceCount(PieceType.CAMEL, PieceColor.BLACK));
+        assertEquals(Position.square(4, 6), position.getPieceSquare(PieceType.QUEEN, PieceColor.WHITE, 0));
+        position.makeMove(Move.of(Position.square(7, 0), Position.square(6, 0), null, 0));
+        position.makeMove(Move.of(Position.square(7, 13), Position.square(11, 13), null, Move.CASTLING));
+        assertEquals(Position.square(11, 13), position.getKingSquare(PieceColor.WHITE));
+        assertEquals(Position.square(6, 0), position.getKingSquare(PieceColor.BLACK));
+        assertEquals(2, position.getPieceCount(PieceType.ROOK, PieceColor.WHITE));
+
+        Position copy = new Position(position);
+        for (PieceColor color : PieceColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                Bitboard squares = position.getPieces(type, color, new Bitboard());
+                assertEquals(squares.cardinality(), copy.getPieceCount(type, color));
+                for (int i = 0; i < copy.getPieceCount(type, color); i++) {
+                    assertTrue(squares.get(copy.getPieceSquare(type, color, i)));
+                }
+            }
+        }
+
+        position.unmakeMove();
+        position.unmakeMove();
+        position.unmakeMove();
+        assertEquals(Position.square(3, 7), position.getPieceSquare(PieceType.PAWN, PieceColor.WHITE, 0));
+        assertEquals(Position.square(4, 6), position.getPieceSquare(PieceType.CAMEL, PieceColor.BLACK, 0));
+        assertEquals(0, position.getPieceCount(PieceType.QUEEN, PieceColor.WHITE));
+        assertEquals(Position.square(7, 13), position.getKingSquare(PieceColor.WHITE));
+    }
+}
@@ -0,0 +1,74 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    @Test
+    void findsMateInOne() {
+        Position position = new Position();
+        position.put(Position.square(0, 13), PieceType.KING, PieceColor.WHITE, true);
+        position.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, true);
+        position.put(Position.square(5, 12), PieceType.ROOK, PieceColor.BLACK, true);
+        position.put(Position.square(6, 3), PieceType.ROOK, PieceColor.BLACK, true);
+        position.setSideToMove(PieceColor.BLACK);
+
+        Search search = new Search(new TranspositionTable(1));
+        int move = search.search(position, 4, 10_000);
+        assertEquals(Position.square(6, 3), Move.from(move));
+        assertEquals(Position.square(6, 13), Move.to(move));
+        assertEquals(Evaluator.MATE - 1, search.getBestScore());
+    }
+
+    @Test
+    void takesHangingPieceAndLeavesPositionUntouched() {
+        Position position = new Position();
+        position.put(Position.square(7, 13), PieceType.KING, PieceColor.WHITE, true);
+        position.put(Position.square(2, 10), PieceType.KNIGHT, PieceColor.WHITE, true);
+        position.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, true);
+        position.put(Position.square(3, 8), PieceType.AMAZON, PieceColor.BLACK, true);
+        long key = position.getKey();
+
+        int move = new Search(new TranspositionTable(1)).search(position, 3, 10_000);
+        assertEquals(Move.of(Position.square(2, 10), Position.square(3, 8), PieceType.AMAZON, 0), move);
+        assertEquals(key, position.getKey());
+    }
+
+    @Test
+    void parallelSearchAgreesOnMate() {
+        Position position = new Position();
+        position.put(Position.square(0, 13), PieceType.KING, PieceColor.WHITE, true);
+        position.put(Position.square(7, 0), PieceType.KING, PieceColor.BLACK, true);
+        position.put(Position.square(5, 12), PieceType.ROOK, PieceColor.BLACK, true);
+        position.put(Position.square(6, 3), PieceType.ROOK, PieceColor.BLACK, true);
+        position.setSideToMove(PieceColor.BLACK);
+
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 3);
+        int move = search.search(position, 4, 10_000);
+        search.shutdown();
+        assertEquals(Position.square(6, 13), Move.to(move));
+        assertEquals(Evaluator.MATE - 1, search.getBestScore());
+        assertTrue(search.getNodes() > 0);
+    }
+
+    @Test
+    void stopRequestedBeforeTheSearchStartsIsNotLost() throws IOException {
+        Position position = Position.fromLayout("level1.txt");
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 2);
+        AtomicBoolean stopRequest = new AtomicBoolean(true);
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> search.search(position, TimeManager.fixedDepth(Search.MAX_PLY), stopRequest));
+        } finally {
+            search.shutdown();
+        }
+    }
+}
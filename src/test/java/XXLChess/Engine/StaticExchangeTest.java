@@ -0,0 +1,45 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceColor;
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticExchangeTest {
+
+    private static Position withKings() {
+        Position position = new Position();
+        position.put(Position.square(13, 13), PieceType.KING, PieceColor.WHITE, true);
+        position.put(Position.square(13, 0), PieceType.KING, PieceColor.BLACK, true);
+        return position;
+    }
+
+    @Test
+    void capturingDefendedPawnWithRookLosesMaterial() {
+        Position position = withKings();
+        position.put(Position.square(5, 10), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(5, 5), PieceType.PAWN, PieceColor.BLACK, true);
+        position.put(Position.square(4, 4), PieceType.PAWN, PieceColor.BLACK, true);
+
+        int move = Move.of(Position.square(5, 10), Position.square(5, 5), PieceType.PAWN, 0);
+        StaticExchange exchange = new StaticExchange();
+        assertEquals(100 - 525, exchange.evaluate(position, move));
+        assertEquals(0, exchange.threat(position, Position.square(5, 5)));
+    }
+
+    @Test
+    void xRayRookBackedUpBehindAttackerWinsTheExchange() {
+        Position position = withKings();
+        position.put(Position.square(5, 10), PieceType.ROOK, PieceColor.WHITE, true);
+        position.put(Position.square(5, 5), PieceType.KNIGHT, PieceColor.BLACK, true);
+        position.put(Position.square(5, 1), PieceType.ROOK, PieceColor.BLACK, true);
+        StaticExchange exchange = new StaticExchange();
+        int move = Move.of(Position.square(5, 10), Position.square(5, 5), PieceType.KNIGHT, 0);
+        assertEquals(200 - 525, exchange.evaluate(position, move));
+
+        position.put(Position.square(5, 12), PieceType.ROOK, PieceColor.WHITE, true);
+        assertEquals(200, exchange.evaluate(position, move));
+        assertEquals(200, exchange.threat(position, Position.square(5, 5)));
+    }
+}
@@ -0,0 +1,36 @@
+package XXLChess.Engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeManagerTest {
+
+    @Test
+    void clockLimitsStayWithinRemainingTime() {
+        TimeManager limits = TimeManager.forClock(180_000, 2_000, 30);
+        long soft = limits.getSoftMillis(0);
+        assertEquals((180_000 - TimeManager.MOVE_OVERHEAD_MILLIS) / 30 + 1_500, soft);
+        assertTrue(limits.getHardMillis() > soft);
+        assertTrue(limits.getHardMillis() <= 180_000 / 3);
+        assertTrue(limits.getSoftMillis(2) > soft);
+        assertEquals(limits.getHardMillis(), limits.getSoftMillis(100));
+
+        TimeManager flagging = TimeManager.forClock(300, 0, 30);
+        assertTrue(flagging.getHardMillis() <= 100);
+    }
+
+    @Test
+    void nodeLimitedSearchIsReproducible() throws IOException {
+        Position position = Position.fromLayout("level1.txt");
+        Search first = new Search(new TranspositionTable(1));
+        Search second = new Search(new TranspositionTable(1));
+        int move = first.search(position, TimeManager.fixedNodes(20_000));
+        assertEquals(move, second.search(position, TimeManager.fixedNodes(20_000)));
+        assertEquals(20_000, first.getNodes());
+        assertEquals(first.getNodes(), second.getNodes());
+        assertNotEquals(Move.NONE, move);
+    }
+}
@@ -0,0 +1,38 @@
+package XXLChess.Engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    void eloAndSprtFollowTheScore() {
+        MatchScore even = new MatchScore(100, 100, 100);
+        assertEquals(0.5, even.getScore(), 1e-9);
+        assertEquals(0.0, even.getElo(), 1e-9);
+        assertEquals(MatchScore.CONTINUE, even.sprt(-5, 5, 0.05, 0.05));
+
+        MatchScore strong = new MatchScore(600, 200, 200);
+        assertEquals(147.2, strong.getElo(), 0.1);
+        assertTrue(strong.getEloError() > 0 && strong.getEloError() < 30);
+        assertEquals(MatchScore.ACCEPT_H1, strong.sprt(0, 10, 0.05, 0.05));
+        assertEquals(MatchScore.ACCEPT_H0, new MatchScore(200, 200, 600).sprt(0, 10, 0.05, 0.05));
+    }
+
+    @Test
+    void playsEveryGameToAResult() throws IOException, InterruptedException {
+        Position layout = Position.fromLayout("level1.txt");
+        Tournament tournament = new Tournament(Collections.singletonList(layout), "depth=2", "depth=1", 1, 42);
+        MatchScore score = tournament.play(3, 2, 0, 10, null);
+        assertEquals(4, score.getGames());
+        int ended = 0;
+        for (int count : tournament.getTerminations()) {
+            ended += count;
+        }
+        assertEquals(4, ended);
+    }
+}
@@ -0,0 +1,43 @@
+package XXLChess.Engine;
+
+import XXLChess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals((1 << 20) / 16, table.capacity());
+        int move = Move.of(Position.square(3, 12), Position.square(3, 10), null, Move.DOUBLE_STEP);
+        table.store(0x123456789ABCDEFL, move, -250, 7, TranspositionTable.BOUND_LOWER);
+
+        long data = table.probe(0x123456789ABCDEFL);
+        assertNotEquals(0, data);
+        assertEquals(move, TranspositionTable.move(data));
+        assertEquals(-250, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+        assertEquals(0, table.probe(0x123456789ABCDEEL));
+
+        table.clear();
+        assertEquals(0, table.probe(0x123456789ABCDEFL));
+    }
+
+    @Test
+    void keepsBestMoveAndDeepEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42L << 40;
+        int move = Move.of(Position.square(0, 0), Position.square(0, 5), PieceType.ROOK, 0);
+        table.store(key, move, 100, 9, TranspositionTable.BOUND_EXACT);
+        table.store(key, Move.NONE, 50, 2, TranspositionTable.BOUND_UPPER);
+        assertEquals(9, TranspositionTable.depth(table.probe(key)));
+
+        table.store(key, Move.NONE, 30, 9, TranspositionTable.BOUND_UPPER);
+        long data = table.probe(key);
+        assertEquals(30, TranspositionTable.score(data));
+        assertEquals(move, TranspositionTable.move(data));
+    }
+}